@@ -0,0 +1,462 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra;
+
+import org.scassandra.http.client.Connection;
+import org.scassandra.http.client.ConnectionPrime;
+import org.scassandra.http.client.DelayDistribution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Listens on Scassandra's binary port and forwards each connection to the server, which listens on an
+ * internal port, a CQL frame at a time. Responses can be delayed to make the node slow, each is delayed
+ * from when the server sent it and responses are never reordered.
+ */
+class BinaryPortProxy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BinaryPortProxy.class);
+
+    private static final int READY = 0x02;
+    private static final int AUTHENTICATE = 0x03;
+    private static final int QUERY = 0x07;
+    private static final int EXECUTE = 0x0A;
+    private static final int BATCH = 0x0D;
+
+    private final String listenAddress;
+    private final int listenPort;
+    private final Set<ProxiedConnection> connections = Collections.newSetFromMap(new ConcurrentHashMap<ProxiedConnection, Boolean>());
+    private final AtomicLong executionsAnswered = new AtomicLong();
+    private final List<Connection> connectionOutcomes = Collections.synchronizedList(new ArrayList<Connection>());
+    private volatile DelayDistribution responseDelay;
+    private volatile ConnectionPrime connectionPrime;
+    private volatile ServerSocket serverSocket;
+    private Thread acceptor;
+    // only used by the acceptor
+    private final Random refusals = new Random();
+    private DelayDistribution handshakeDistribution;
+    private DelayDistribution.Sampler handshakeSampler;
+
+    BinaryPortProxy(String listenAddress, int listenPort) {
+        this.listenAddress = listenAddress;
+        this.listenPort = listenPort;
+    }
+
+    /**
+     * Listens on the binary port and forwards new connections to the server's port.
+     */
+    synchronized void start(final String targetHost, final int targetPort) throws IOException {
+        if (serverSocket != null) {
+            return;
+        }
+        final ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(listenAddress, listenPort));
+        serverSocket = socket;
+        acceptor = daemon("scassandra-proxy-" + listenPort + "-acceptor", new Runnable() {
+            @Override
+            public void run() {
+                accept(socket, targetHost, targetPort);
+            }
+        });
+        acceptor.start();
+    }
+
+    /**
+     * Stops listening and closes every connection, starting again listens on the same port.
+     */
+    synchronized void stop() {
+        if (serverSocket != null) {
+            closeQuietly(serverSocket);
+            serverSocket = null;
+            awaitAcceptor();
+        }
+        for (ProxiedConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    /*
+    The port can keep accepting until the acceptor is out of accept, so wait for it before saying the
+    port is suspended
+     */
+    private void awaitAcceptor() {
+        try {
+            acceptor.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        acceptor = null;
+    }
+
+    boolean isListening() {
+        return serverSocket != null;
+    }
+
+    /**
+     * Resets every connection, the client sees a connection reset rather than the connection closing, and
+     * keeps listening for new ones.
+     */
+    void resetConnections() {
+        for (ProxiedConnection connection : connections) {
+            connection.reset();
+        }
+    }
+
+    /**
+     * @param responseDelay Delay of each response, null for none. Applies to responses sent after it is set.
+     */
+    void setResponseDelay(DelayDistribution responseDelay) {
+        this.responseDelay = responseDelay;
+    }
+
+    DelayDistribution getResponseDelay() {
+        return responseDelay;
+    }
+
+    long executionsAnswered() {
+        return executionsAnswered.get();
+    }
+
+    /**
+     * @param connectionPrime How to treat new connections, null to accept them all without delay
+     */
+    void setConnectionPrime(ConnectionPrime connectionPrime) {
+        this.connectionPrime = connectionPrime;
+    }
+
+    List<Connection> connectionOutcomes() {
+        synchronized (connectionOutcomes) {
+            return new ArrayList<Connection>(connectionOutcomes);
+        }
+    }
+
+    void clearConnectionOutcomes() {
+        connectionOutcomes.clear();
+    }
+
+    private void accept(ServerSocket socket, String targetHost, int targetPort) {
+        while (!socket.isClosed()) {
+            Socket client;
+            try {
+                client = socket.accept();
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.warn("Accepting connection on binary port {} failed", listenPort, e);
+                }
+                return;
+            }
+            Connection.ConnectionBuilder outcome = Connection.builder()
+                    .withConnectionId(connectionId(client))
+                    .withReceivedAt(System.currentTimeMillis())
+                    .withReceivedNanos(System.nanoTime());
+            ConnectionPrime prime = connectionPrime;
+            String refusal = refusal(prime);
+            if (refusal != null) {
+                reset(client);
+                closeQuietly(client);
+                connectionOutcomes.add(outcome.withResult(refusal)
+                        .withRespondedAt(System.currentTimeMillis())
+                        .withRespondedNanos(System.nanoTime())
+                        .build());
+                continue;
+            }
+            Long handshakeDelay = handshakeDelay(prime);
+            try {
+                client.setTcpNoDelay(true);
+                Socket server = new Socket(targetHost, targetPort);
+                server.setTcpNoDelay(true);
+                ProxiedConnection connection = new ProxiedConnection(client, server, handshakeDelay == null ? 0 : handshakeDelay);
+                connections.add(connection);
+                outcome.withResult(Connection.SUCCESS);
+                if (handshakeDelay != null) {
+                    outcome.withHandshakeDelay(handshakeDelay);
+                }
+                connectionOutcomes.add(outcome.build());
+                connection.start();
+            } catch (IOException e) {
+                LOGGER.warn("Unable to connect to Scassandra's binary port {}", targetPort, e);
+                closeQuietly(client);
+            }
+        }
+    }
+
+    private static String connectionId(Socket client) {
+        return client.getInetAddress().getHostAddress() + ":" + client.getPort();
+    }
+
+    private String refusal(ConnectionPrime prime) {
+        if (prime == null) {
+            return null;
+        }
+        if (prime.getMaxConnections() != null && connections.size() >= prime.getMaxConnections()) {
+            return Connection.MAX_CONNECTIONS;
+        }
+        if (refusals.nextDouble() < prime.getRefusalProbability()) {
+            return Connection.REFUSED;
+        }
+        return null;
+    }
+
+    private Long handshakeDelay(ConnectionPrime prime) {
+        if (prime == null || prime.getHandshakeDelay() == null) {
+            return null;
+        }
+        if (prime.getHandshakeDelay() != handshakeDistribution) {
+            handshakeDistribution = prime.getHandshakeDelay();
+            handshakeSampler = handshakeDistribution.sampler();
+        }
+        return handshakeSampler.nextDelay();
+    }
+
+    private static void reset(Socket socket) {
+        try {
+            socket.setSoLinger(true, 0);
+        } catch (IOException e) {
+            LOGGER.debug("Unable to reset connection from {}", socket.getRemoteSocketAddress(), e);
+        }
+    }
+
+    private static Thread daemon(String name, Runnable runnable) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            LOGGER.debug("Closing {} failed", closeable, e);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("Closing {} failed", socket, e);
+        }
+    }
+
+    private final class ProxiedConnection {
+        private final Socket client;
+        private final Socket server;
+        // streams of executions the server hasn't answered yet
+        private final Set<Integer> executions = Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
+        private final BlockingQueue<Frame> responses = new LinkedBlockingQueue<Frame>();
+        private final long handshakeDelay;
+        private volatile boolean closed;
+
+        private ProxiedConnection(Socket client, Socket server, long handshakeDelay) {
+            this.client = client;
+            this.server = server;
+            this.handshakeDelay = handshakeDelay;
+        }
+
+        private void start() {
+            String name = "scassandra-proxy-" + listenPort + "-" + client.getPort();
+            daemon(name + "-requests", new Runnable() {
+                @Override
+                public void run() {
+                    forwardRequests();
+                }
+            }).start();
+            daemon(name + "-responses", new Runnable() {
+                @Override
+                public void run() {
+                    readResponses();
+                }
+            }).start();
+            daemon(name + "-delivery", new Runnable() {
+                @Override
+                public void run() {
+                    deliverResponses();
+                }
+            }).start();
+        }
+
+        private void forwardRequests() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(client.getInputStream()));
+                OutputStream out = new BufferedOutputStream(server.getOutputStream());
+                Frame request;
+                while ((request = Frame.read(in)) != null) {
+                    int opcode = request.opcode();
+                    if (opcode == QUERY || opcode == EXECUTE || opcode == BATCH) {
+                        executions.add(request.stream());
+                    }
+                    request.writeTo(out);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    LOGGER.debug("Forwarding requests to Scassandra failed", e);
+                }
+            } finally {
+                close();
+            }
+        }
+
+        /*
+        A response is due its delay after it was read but never before the response ahead of it, the
+        response that ends the handshake is also due the handshake delay
+         */
+        private void readResponses() {
+            DelayDistribution distribution = null;
+            DelayDistribution.Sampler sampler = null;
+            long previousDue = System.nanoTime();
+            boolean handshaking = true;
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(server.getInputStream()));
+                Frame response;
+                while ((response = Frame.read(in)) != null) {
+                    long due = System.nanoTime();
+                    DelayDistribution delay = responseDelay;
+                    if (delay != null) {
+                        if (delay != distribution) {
+                            distribution = delay;
+                            sampler = delay.sampler();
+                        }
+                        due += TimeUnit.MILLISECONDS.toNanos(sampler.nextDelay());
+                    }
+                    if (handshaking && (response.opcode() == READY || response.opcode() == AUTHENTICATE)) {
+                        handshaking = false;
+                        due += TimeUnit.MILLISECONDS.toNanos(handshakeDelay);
+                    }
+                    if (due - previousDue < 0) {
+                        due = previousDue;
+                    }
+                    previousDue = due;
+                    response.due = due;
+                    responses.add(response);
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    LOGGER.debug("Reading responses from Scassandra failed", e);
+                }
+            } finally {
+                responses.add(Frame.END);
+            }
+        }
+
+        private void deliverResponses() {
+            try {
+                OutputStream out = new BufferedOutputStream(client.getOutputStream());
+                while (true) {
+                    Frame response = responses.take();
+                    if (response == Frame.END) {
+                        return;
+                    }
+                    long wait = response.due - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.sleep(wait);
+                    }
+                    if (executions.remove(response.stream())) {
+                        executionsAnswered.incrementAndGet();
+                    }
+                    response.writeTo(out);
+                    if (responses.isEmpty()) {
+                        out.flush();
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    LOGGER.debug("Delivering responses to the client failed", e);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                close();
+            }
+        }
+
+        private void reset() {
+            BinaryPortProxy.reset(client);
+            close();
+        }
+
+        private void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            closeQuietly(client);
+            closeQuietly(server);
+            connections.remove(this);
+            responses.add(Frame.END);
+        }
+    }
+
+    /**
+     * A CQL frame, the header is 8 bytes before protocol version 3 and 9 after as the stream id grew to
+     * two bytes.
+     */
+    static final class Frame {
+        static final Frame END = new Frame(new byte[8], new byte[0]);
+
+        private final byte[] header;
+        private final byte[] body;
+        long due;
+
+        Frame(byte[] header, byte[] body) {
+            this.header = header;
+            this.body = body;
+        }
+
+        static Frame read(DataInputStream in) throws IOException {
+            int version = in.read();
+            if (version < 0) {
+                return null;
+            }
+            byte[] header = new byte[(version & 0x7F) >= 3 ? 9 : 8];
+            header[0] = (byte) version;
+            in.readFully(header, 1, header.length - 1);
+            int length = ((header[header.length - 4] & 0xFF) << 24) | ((header[header.length - 3] & 0xFF) << 16)
+                    | ((header[header.length - 2] & 0xFF) << 8) | (header[header.length - 1] & 0xFF);
+            if (length < 0) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            byte[] body = new byte[length];
+            in.readFully(body);
+            return new Frame(header, body);
+        }
+
+        int opcode() {
+            return header[header.length - 5] & 0xFF;
+        }
+
+        int stream() {
+            return header.length == 9 ? (short) (((header[2] & 0xFF) << 8) | (header[3] & 0xFF)) : header[2];
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(header);
+            out.write(body);
+        }
+    }
+}
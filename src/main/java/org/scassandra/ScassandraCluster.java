@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra;
+
+import org.scassandra.http.client.DelayDistribution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Several Scassandra nodes that share a binary port, each on its own address, so a driver sees them as
+ * one cluster. Give a node a response delay to make it slow while the others stay fast, for example to
+ * test speculative executions or latency aware load balancing.
+ */
+public class ScassandraCluster {
+
+    private final List<ScassandraNode> nodes;
+
+    ScassandraCluster(List<ScassandraNode> nodes) {
+        this.nodes = Collections.unmodifiableList(new ArrayList<ScassandraNode>(nodes));
+    }
+
+    /**
+     * Starts every node, stopping the ones already started if one fails to start.
+     */
+    public void start() {
+        List<ScassandraNode> started = new ArrayList<ScassandraNode>();
+        try {
+            for (ScassandraNode node : nodes) {
+                node.start();
+                started.add(node);
+            }
+        } catch (RuntimeException e) {
+            for (ScassandraNode node : started) {
+                node.stop();
+            }
+            throw e;
+        }
+    }
+
+    public void stop() {
+        for (ScassandraNode node : nodes) {
+            node.stop();
+        }
+    }
+
+    public List<ScassandraNode> nodes() {
+        return nodes;
+    }
+
+    /**
+     * @param index Index of the node, from 0
+     * @return the node
+     */
+    public ScassandraNode node(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @return the binary listen address of every node, to give to the driver as contact points
+     */
+    public String[] contactPoints() {
+        String[] contactPoints = new String[nodes.size()];
+        for (int i = 0; i < contactPoints.length; i++) {
+            contactPoints[i] = nodes.get(i).getBinaryListenAddress();
+        }
+        return contactPoints;
+    }
+
+    /**
+     * @return the binary port every node listens on
+     */
+    public int getBinaryPort() {
+        return nodes.get(0).getBinaryPort();
+    }
+
+    /**
+     * @return how many executions each node has answered so far and whether it was slow
+     */
+    public ExecutionReport executionReport() {
+        List<NodeExecutions> report = new ArrayList<NodeExecutions>();
+        for (ScassandraNode node : nodes) {
+            report.add(new NodeExecutions(node.getBinaryListenAddress(), node.getResponseDelay(), node.executionsAnswered()));
+        }
+        return new ExecutionReport(report);
+    }
+
+    public static final class NodeExecutions {
+        private final String address;
+        private final DelayDistribution responseDelay;
+        private final long executions;
+
+        private NodeExecutions(String address, DelayDistribution responseDelay, long executions) {
+            this.address = address;
+            this.responseDelay = responseDelay;
+            this.executions = executions;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        /**
+         * @return the node's response delay when the report was taken, null if it had none
+         */
+        public DelayDistribution getResponseDelay() {
+            return responseDelay;
+        }
+
+        public boolean isSlow() {
+            return responseDelay != null;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        @Override
+        public String toString() {
+            return "NodeExecutions{" +
+                    "address='" + address + '\'' +
+                    ", responseDelay=" + responseDelay +
+                    ", executions=" + executions +
+                    '}';
+        }
+    }
+
+    /**
+     * Executions answered per node, split between slow nodes, the ones with a response delay when the
+     * report was taken, and fast nodes.
+     */
+    public static final class ExecutionReport {
+        private final List<NodeExecutions> nodes;
+
+        private ExecutionReport(List<NodeExecutions> nodes) {
+            this.nodes = Collections.unmodifiableList(nodes);
+        }
+
+        public List<NodeExecutions> getNodes() {
+            return nodes;
+        }
+
+        public long getSlowExecutions() {
+            long executions = 0;
+            for (NodeExecutions node : nodes) {
+                if (node.isSlow()) {
+                    executions += node.executions;
+                }
+            }
+            return executions;
+        }
+
+        public long getFastExecutions() {
+            return getTotalExecutions() - getSlowExecutions();
+        }
+
+        public long getTotalExecutions() {
+            long executions = 0;
+            for (NodeExecutions node : nodes) {
+                executions += node.executions;
+            }
+            return executions;
+        }
+
+        @Override
+        public String toString() {
+            long total = getTotalExecutions();
+            StringBuilder report = new StringBuilder();
+            for (NodeExecutions node : nodes) {
+                report.append(String.format("%-15s %-4s %8d %6.1f%%%n", node.address, node.isSlow() ? "slow" : "fast",
+                        node.executions, total == 0 ? 0.0 : 100.0 * node.executions / total));
+            }
+            report.append(String.format("slow %d, fast %d, total %d", getSlowExecutions(), getFastExecutions(), total));
+            return report.toString();
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package org.scassandra;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Factory for creating Scassandra instances.
  */
@@ -46,4 +49,65 @@ public class ScassandraFactory {
     public static Scassandra createServer() {
         return new ScassandraRunner("localhost", 8042, "localhost", 8043);
     }
+
+    /**
+     * Creates a node whose binary port can be suspended, reset, slowed down and primed to refuse or delay
+     * connections. The server listens on an internal port chosen when the node starts and the node forwards
+     * the binary port to it, use {@link #createServer(int, int)} when none of that is needed.
+     * @param binaryPort Cassandra binary port
+     * @param adminPort Scassandra admin port
+     * @return A node configured with the given ports.
+     */
+    public static ScassandraNode createNode(int binaryPort, int adminPort) {
+        return createNode("localhost", binaryPort, "localhost", adminPort);
+    }
+
+    /**
+     * @param binaryListenAddress Override for example to 0.0.0.0
+     * @param binaryPort Cassandra binary port
+     * @param adminListenAddress Override for example to 0.0.0.0
+     * @param adminPort Scassandra admin port
+     * @return A node configured with the given ports.
+     * @see #createNode(int, int)
+     */
+    public static ScassandraNode createNode(String binaryListenAddress, int binaryPort, String adminListenAddress, int adminPort) {
+        return new ScassandraRunner(binaryListenAddress, binaryPort, adminListenAddress, adminPort, true);
+    }
+
+    /**
+     * Creates a cluster of nodes listening on 127.0.0.1, 127.0.0.2 and so on, all on the same binary port.
+     * Other than on Linux the extra loopback addresses may need to be added first.
+     * @param nodes Number of nodes, from 1 to 254
+     * @param binaryPort Cassandra binary port of every node
+     * @param firstAdminPort Scassandra admin port of the first node, the others use the ports after it
+     * @return A cluster of nodes, not yet started.
+     */
+    public static ScassandraCluster createCluster(int nodes, int binaryPort, int firstAdminPort) {
+        if (nodes < 1 || nodes > 254) {
+            throw new IllegalArgumentException("A cluster needs between 1 and 254 nodes: " + nodes);
+        }
+        List<String> binaryListenAddresses = new ArrayList<String>();
+        for (int node = 1; node <= nodes; node++) {
+            binaryListenAddresses.add("127.0.0." + node);
+        }
+        return createCluster(binaryListenAddresses, binaryPort, "localhost", firstAdminPort);
+    }
+
+    /**
+     * @param binaryListenAddresses Binary listen address of each node
+     * @param binaryPort Cassandra binary port of every node
+     * @param adminListenAddress Admin listen address of every node
+     * @param firstAdminPort Scassandra admin port of the first node, the others use the ports after it
+     * @return A cluster of nodes, not yet started.
+     */
+    public static ScassandraCluster createCluster(List<String> binaryListenAddresses, int binaryPort, String adminListenAddress, int firstAdminPort) {
+        if (binaryListenAddresses.isEmpty()) {
+            throw new IllegalArgumentException("A cluster needs at least one node");
+        }
+        List<ScassandraNode> nodes = new ArrayList<ScassandraNode>();
+        for (int node = 0; node < binaryListenAddresses.size(); node++) {
+            nodes.add(createNode(binaryListenAddresses.get(node), binaryPort, adminListenAddress, firstAdminPort + node));
+        }
+        return new ScassandraCluster(nodes);
+    }
 }
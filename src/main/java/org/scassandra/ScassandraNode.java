@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra;
+
+import org.scassandra.http.client.Connection;
+import org.scassandra.http.client.ConnectionPrime;
+import org.scassandra.http.client.DelayDistribution;
+
+import java.util.List;
+
+/**
+ * A Scassandra whose binary port can be shaped: made slow, suspended, reset or primed to delay and refuse
+ * connections. Created by {@link ScassandraFactory#createNode} and {@link ScassandraFactory#createCluster}.
+ */
+public interface ScassandraNode extends Scassandra {
+
+    /**
+     * The address Scassandra is listening on for connections from Cassandra.
+     * @return Scassandra binary listen address
+     */
+    String getBinaryListenAddress();
+
+    /**
+     * Closes the binary port and every connection to it, as if Cassandra had gone down. The admin port,
+     * primes and recorded activity are left as they are. Does nothing if already suspended.
+     */
+    void suspendBinaryPort();
+
+    /**
+     * Opens the binary port again after {@link #suspendBinaryPort()}. Does nothing if not suspended.
+     */
+    void resumeBinaryPort();
+
+    /**
+     * @return true if the binary port is suspended or Scassandra isn't started
+     */
+    boolean isBinaryPortSuspended();
+
+    /**
+     * Resets every connection to the binary port, clients see a connection reset rather than the
+     * connection closing. New connections are still accepted.
+     */
+    void resetBinaryPortConnections();
+
+    /**
+     * Primes how the binary port treats new connections, replacing any previous connection prime.
+     * Connections already open are left alone.
+     * @param connectionPrime Handshake delay, max connections and refusal probability
+     */
+    void primeConnections(ConnectionPrime connectionPrime);
+
+    /**
+     * Accepts new connections without delay again.
+     */
+    void clearConnectionPrime();
+
+    /**
+     * Retrieves the connections made to the binary port, including those the connection prime refused,
+     * with the time each was accepted and the handshake delay it was given.
+     * @return A List of Connection objects, oldest first
+     */
+    List<Connection> retrieveConnectionOutcomes();
+
+    /**
+     * Deletes the recorded connection outcomes.
+     */
+    void clearConnectionOutcomes();
+
+    /**
+     * Delays every response on the binary port, on top of any delay of the prime, making this node slow
+     * compared to others. Can be changed while running and applies to responses sent after the change.
+     * @param responseDelay Delay of each response, null for none. For a fixed delay use a uniform
+     *                      distribution with the same min and max.
+     */
+    void setResponseDelay(DelayDistribution responseDelay);
+
+    /**
+     * @return the delay of every response on the binary port, null if there is none
+     */
+    DelayDistribution getResponseDelay();
+
+    /**
+     * The number of queries, executions of prepared statements and batches this node has answered since
+     * it started.
+     * @return executions answered
+     */
+    long executionsAnswered();
+}
@@ -15,38 +15,66 @@
  */
 package org.scassandra;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
 import org.scassandra.http.client.ActivityClient;
+import org.scassandra.http.client.Connection;
+import org.scassandra.http.client.ConnectionPrime;
+import org.scassandra.http.client.DelayDistribution;
+import org.scassandra.http.client.GsonJsonCodec;
+import org.scassandra.http.client.JsonCodec;
 import org.scassandra.http.client.PrimingClient;
 import org.scassandra.server.ServerStubRunner;
 
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.util.Map;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
 
-class ScassandraRunner implements Scassandra {
+class ScassandraRunner implements ScassandraNode {
 
-    private final ServerStubRunner serverStubRunner;
+    private static final String SERVER_BINARY_ADDRESS = "127.0.0.1";
+
+    // null unless the node shapes its binary port, then the server listens on an internal port behind it
+    private final BinaryPortProxy binaryPortProxy;
+    private final String binaryListenAddress;
+    private final String adminListenAddress;
     private final PrimingClient primingClient;
     private final ActivityClient activityClient;
     private final int binaryPort;
     private final int adminPort;
     private final String versionurl;
     private final CloseableHttpClient httpClient = HttpClients.createDefault();
-    private final Gson gson = new Gson();
+    private final JsonCodec jsonCodec = new GsonJsonCodec();
+    private ServerStubRunner serverStubRunner;
+    private int serverBinaryPort;
 
     ScassandraRunner(String binaryListenAddress, int binaryPort, String adminListenAddress, int adminPort) {
+        this(binaryListenAddress, binaryPort, adminListenAddress, adminPort, false);
+    }
+
+    /**
+     * @param shapeBinaryPort Whether to put the binary port behind a proxy so it can be shaped, otherwise
+     *                        the server listens on the binary port itself
+     */
+    ScassandraRunner(String binaryListenAddress, int binaryPort, String adminListenAddress, int adminPort, boolean shapeBinaryPort) {
+        this.binaryListenAddress = binaryListenAddress;
+        this.adminListenAddress = adminListenAddress;
         this.binaryPort = binaryPort;
         this.adminPort = adminPort;
-        this.serverStubRunner = new ServerStubRunner(binaryListenAddress, binaryPort, adminListenAddress, adminPort);
+        if (shapeBinaryPort) {
+            this.binaryPortProxy = new BinaryPortProxy(binaryListenAddress, binaryPort);
+        } else {
+            this.binaryPortProxy = null;
+            this.serverStubRunner = new ServerStubRunner(binaryListenAddress, binaryPort, adminListenAddress, adminPort);
+        }
         this.primingClient = PrimingClient.builder().withPort(adminPort).build();
         this.activityClient = ActivityClient.builder().withPort(adminPort).build();
-        this.versionurl = "http://" + binaryListenAddress + ":" + adminPort + "/version";
+        this.versionurl = "http://" + adminListenAddress + ":" + adminPort + "/version";
 
     }
 
@@ -61,14 +89,95 @@ class ScassandraRunner implements Scassandra {
     }
 
     @Override
-    public void start() {
+    public synchronized void start() {
+        if (binaryPortProxy == null) {
+            serverStubRunner.start();
+            serverStubRunner.awaitStartup();
+            return;
+        }
+        // picked as late as possible so nothing else has time to take the port before the server does
+        serverBinaryPort = freePort();
+        serverStubRunner = new ServerStubRunner(SERVER_BINARY_ADDRESS, serverBinaryPort, adminListenAddress, adminPort);
         serverStubRunner.start();
         serverStubRunner.awaitStartup();
+        try {
+            binaryPortProxy.start(SERVER_BINARY_ADDRESS, serverBinaryPort);
+        } catch (IOException e) {
+            serverStubRunner.shutdown();
+            throw new RuntimeException("Unable to listen on binary port " + binaryPort, e);
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (binaryPortProxy != null) {
+            binaryPortProxy.stop();
+        }
+        if (serverStubRunner != null) {
+            serverStubRunner.shutdown();
+        }
+    }
+
+    @Override
+    public void suspendBinaryPort() {
+        binaryPortProxy().stop();
+    }
+
+    @Override
+    public synchronized void resumeBinaryPort() {
+        if (serverStubRunner == null) {
+            throw new IllegalStateException("Scassandra hasn't been started");
+        }
+        try {
+            binaryPortProxy().start(SERVER_BINARY_ADDRESS, serverBinaryPort);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to listen on binary port " + binaryPort, e);
+        }
     }
 
     @Override
-    public void stop() {
-        serverStubRunner.shutdown();
+    public boolean isBinaryPortSuspended() {
+        return !binaryPortProxy().isListening();
+    }
+
+    @Override
+    public void resetBinaryPortConnections() {
+        binaryPortProxy().resetConnections();
+    }
+
+    @Override
+    public void primeConnections(ConnectionPrime connectionPrime) {
+        binaryPortProxy().setConnectionPrime(connectionPrime);
+    }
+
+    @Override
+    public void clearConnectionPrime() {
+        binaryPortProxy().setConnectionPrime(null);
+    }
+
+    @Override
+    public List<Connection> retrieveConnectionOutcomes() {
+        return binaryPortProxy().connectionOutcomes();
+    }
+
+    @Override
+    public void clearConnectionOutcomes() {
+        binaryPortProxy().clearConnectionOutcomes();
+    }
+
+    @Override
+    public void setResponseDelay(DelayDistribution responseDelay) {
+        binaryPortProxy().setResponseDelay(responseDelay);
+    }
+
+    @Override
+    public DelayDistribution getResponseDelay() {
+        return binaryPortProxy().getResponseDelay();
+    }
+
+    @Override
+    public long executionsAnswered() {
+        return binaryPortProxy().executionsAnswered();
     }
 
     @Override
@@ -81,18 +190,44 @@ class ScassandraRunner implements Scassandra {
         return binaryPort;
     }
 
+    @Override
+    public String getBinaryListenAddress() {
+        return binaryListenAddress;
+    }
+
     @Override
     public String serverVersion() {
         HttpGet get = new HttpGet(versionurl);
         try {
-            Type type = new TypeToken<Map<String, String>>(){}.getType();
-            Map<String, String> version = gson.fromJson(EntityUtils.toString(httpClient.execute(get).getEntity()), type);
-            return version.get("version");
+            return jsonCodec.readVersion(new StringReader(EntityUtils.toString(httpClient.execute(get).getEntity())));
         } catch (IOException e) {
             throw new RuntimeException("Unable to get version", e);
         }
     }
 
-}
-
+    private BinaryPortProxy binaryPortProxy() {
+        if (binaryPortProxy == null) {
+            throw new IllegalStateException("The binary port can only be shaped on a node created with ScassandraFactory.createNode or createCluster");
+        }
+        return binaryPortProxy;
+    }
 
+    private static int freePort() {
+        ServerSocket socket = null;
+        try {
+            socket = new ServerSocket();
+            socket.bind(new InetSocketAddress(InetAddress.getByName(SERVER_BINARY_ADDRESS), 0));
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to find a free port for Scassandra's binary port", e);
+        } finally {
+            if (socket != null) {
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // the port is still free
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.HdrHistogram.Histogram;
+import org.scassandra.http.client.ActivityClient;
+import org.scassandra.http.client.PreparedStatementExecution;
+import org.scassandra.http.client.Query;
+import org.scassandra.http.client.TimedActivity;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computes throughput and concurrency from recorded activity in a single pass. Activity must be recorded
+ * in the order Scassandra received it, which is the order {@link ActivityClient} returns it in. Activity
+ * without nano times is counted but otherwise left out.
+ * <p>
+ * Not thread safe.
+ */
+public class ActivityAnalyser {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final long windowNanos;
+    private final SortedMap<Long, Long> requestsPerWindow = new TreeMap<Long, Long>();
+    private final PriorityQueue<Long> inFlight = new PriorityQueue<Long>();
+    private final Map<String, PriorityQueue<Long>> inFlightByConnection = new HashMap<String, PriorityQueue<Long>>();
+    private final Map<String, Integer> peakConcurrencyByConnection = new HashMap<String, Integer>();
+    private final Map<String, Long> lastArrivalByStatement = new HashMap<String, Long>();
+    private final Map<String, Histogram> interArrivalTimes = new HashMap<String, Histogram>();
+    private Long origin;
+    private int peakConcurrency;
+    private long analysed;
+    private long untimed;
+
+    /**
+     * @param window Length of the windows throughput is counted in
+     * @param unit   Unit of the window
+     */
+    public ActivityAnalyser(long window, TimeUnit unit) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive: " + window);
+        }
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * Analyses every query and prepared statement execution the client's Scassandra has recorded.
+     *
+     * @param activityClient Client of the Scassandra to analyse
+     * @param window         Length of the windows throughput is counted in
+     * @param unit           Unit of the window
+     * @return the analysis
+     */
+    public static ActivityAnalysis analyse(ActivityClient activityClient, long window, TimeUnit unit) {
+        return analyse(activityClient.retrieveQueries(), activityClient.retrievePreparedStatementExecutions(), window, unit);
+    }
+
+    /**
+     * Analyses queries and executions together, merging them in the order they were received.
+     *
+     * @param queries    Queries in the order they were recorded
+     * @param executions Executions in the order they were recorded
+     * @param window     Length of the windows throughput is counted in
+     * @param unit       Unit of the window
+     * @return the analysis
+     */
+    public static ActivityAnalysis analyse(List<Query> queries, List<PreparedStatementExecution> executions, long window, TimeUnit unit) {
+        ActivityAnalyser analyser = new ActivityAnalyser(window, unit);
+        int query = 0;
+        int execution = 0;
+        while (query < queries.size() || execution < executions.size()) {
+            if (execution == executions.size()
+                    || (query < queries.size() && receivedFirst(queries.get(query), executions.get(execution)))) {
+                analyser.record(queries.get(query++));
+            } else {
+                analyser.record(executions.get(execution++));
+            }
+        }
+        return analyser.analysis();
+    }
+
+    public void record(Query query) {
+        record(query.getQuery(), query);
+    }
+
+    public void record(PreparedStatementExecution execution) {
+        record(execution.getPreparedStatementText(), execution);
+    }
+
+    /**
+     * @param statement Text of the statement, inter-arrival times are per statement
+     * @param activity  When the statement was received and answered and on which connection
+     */
+    public void record(String statement, TimedActivity activity) {
+        analysed++;
+        Long received = activity.getReceivedNanos();
+        if (received == null) {
+            untimed++;
+            return;
+        }
+        long responded = activity.getRespondedNanos() != null ? activity.getRespondedNanos() : received;
+
+        if (origin == null) {
+            origin = received;
+        }
+        long window = floorDiv(received - origin, windowNanos);
+        Long requests = requestsPerWindow.get(window);
+        requestsPerWindow.put(window, requests == null ? 1 : requests + 1);
+
+        peakConcurrency = Math.max(peakConcurrency, admit(inFlight, received, responded));
+        String connection = String.valueOf(activity.getConnectionId());
+        PriorityQueue<Long> connectionInFlight = inFlightByConnection.get(connection);
+        if (connectionInFlight == null) {
+            connectionInFlight = new PriorityQueue<Long>();
+            inFlightByConnection.put(connection, connectionInFlight);
+        }
+        int concurrency = admit(connectionInFlight, received, responded);
+        Integer peak = peakConcurrencyByConnection.get(connection);
+        if (peak == null || concurrency > peak) {
+            peakConcurrencyByConnection.put(connection, concurrency);
+        }
+
+        Long lastArrival = lastArrivalByStatement.put(statement, received);
+        if (lastArrival != null) {
+            Histogram histogram = interArrivalTimes.get(statement);
+            if (histogram == null) {
+                histogram = new Histogram(SIGNIFICANT_DIGITS);
+                interArrivalTimes.put(statement, histogram);
+            }
+            histogram.recordValue(Math.max(0, received - lastArrival));
+        }
+    }
+
+    /**
+     * @return the analysis of the activity recorded so far, later activity doesn't change it
+     */
+    public ActivityAnalysis analysis() {
+        Map<String, Histogram> histograms = new HashMap<String, Histogram>();
+        for (Map.Entry<String, Histogram> each : interArrivalTimes.entrySet()) {
+            histograms.put(each.getKey(), each.getValue().copy());
+        }
+        return new ActivityAnalysis(windowNanos, new TreeMap<Long, Long>(requestsPerWindow), peakConcurrency,
+                new HashMap<String, Integer>(peakConcurrencyByConnection), histograms, analysed, untimed);
+    }
+
+    /*
+    Requests still in flight are the ones answered after this one was received
+     */
+    private static int admit(PriorityQueue<Long> inFlight, long received, long responded) {
+        while (!inFlight.isEmpty() && inFlight.peek() < received) {
+            inFlight.poll();
+        }
+        inFlight.add(responded);
+        return inFlight.size();
+    }
+
+    private static boolean receivedFirst(TimedActivity first, TimedActivity second) {
+        if (first.getReceivedNanos() == null || second.getReceivedNanos() == null) {
+            return first.getReceivedNanos() == null;
+        }
+        return first.getReceivedNanos() <= second.getReceivedNanos();
+    }
+
+    private static long floorDiv(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        return dividend % divisor < 0 ? quotient - 1 : quotient;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and concurrency of recorded activity, created by an {@link ActivityAnalyser}.
+ */
+public final class ActivityAnalysis {
+
+    private final long windowNanos;
+    private final SortedMap<Long, Long> requestsPerWindow;
+    private final int peakConcurrency;
+    private final Map<String, Integer> peakConcurrencyByConnection;
+    private final Map<String, Histogram> interArrivalTimes;
+    private final long analysed;
+    private final long untimed;
+
+    ActivityAnalysis(long windowNanos, SortedMap<Long, Long> requestsPerWindow, int peakConcurrency, Map<String, Integer> peakConcurrencyByConnection,
+                     Map<String, Histogram> interArrivalTimes, long analysed, long untimed) {
+        this.windowNanos = windowNanos;
+        this.requestsPerWindow = Collections.unmodifiableSortedMap(requestsPerWindow);
+        this.peakConcurrency = peakConcurrency;
+        this.peakConcurrencyByConnection = Collections.unmodifiableMap(peakConcurrencyByConnection);
+        this.interArrivalTimes = Collections.unmodifiableMap(interArrivalTimes);
+        this.analysed = analysed;
+        this.untimed = untimed;
+    }
+
+    public long getWindow(TimeUnit unit) {
+        return unit.convert(windowNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return requests received in each window that had any, by the window's index counting from the one
+     * the first request was received in. Windows without requests are left out, so a long quiet spell
+     * costs nothing however short the window.
+     */
+    public SortedMap<Long, Long> getRequestsPerWindow() {
+        return requestsPerWindow;
+    }
+
+    /**
+     * @return requests per second of the busiest window, 0 if nothing was analysed
+     */
+    public double getPeakRequestsPerSecond() {
+        long peak = 0;
+        for (Long requests : requestsPerWindow.values()) {
+            peak = Math.max(peak, requests);
+        }
+        return peak * (double) TimeUnit.SECONDS.toNanos(1) / windowNanos;
+    }
+
+    /**
+     * @return the most requests in flight at once across all connections
+     */
+    public int getPeakConcurrency() {
+        return peakConcurrency;
+    }
+
+    /**
+     * @return the most requests in flight at once on each connection, by connection id
+     */
+    public Map<String, Integer> getPeakConcurrencyByConnection() {
+        return peakConcurrencyByConnection;
+    }
+
+    /**
+     * @return the most requests in flight at once on any one connection
+     */
+    public int getPeakConcurrencyPerConnection() {
+        int peak = 0;
+        for (Integer concurrency : peakConcurrencyByConnection.values()) {
+            peak = Math.max(peak, concurrency);
+        }
+        return peak;
+    }
+
+    /**
+     * @return the time between consecutive arrivals of each statement in nanoseconds, by statement text.
+     * Statements received once have no histogram.
+     */
+    public Map<String, Histogram> getInterArrivalTimes() {
+        return interArrivalTimes;
+    }
+
+    /**
+     * @return all the activity analysed, including activity without nano times
+     */
+    public long getAnalysed() {
+        return analysed;
+    }
+
+    /**
+     * @return activity that was recorded without nano times so was left out of the analysis
+     */
+    public long getUntimed() {
+        return untimed;
+    }
+
+    @Override
+    public String toString() {
+        return "ActivityAnalysis{" +
+                "windowNanos=" + windowNanos +
+                ", requestsPerWindow=" + requestsPerWindow +
+                ", peakConcurrency=" + peakConcurrency +
+                ", peakConcurrencyByConnection=" + peakConcurrencyByConnection +
+                ", statements=" + interArrivalTimes.keySet() +
+                ", analysed=" + analysed +
+                ", untimed=" + untimed +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A statement shape that was executed as simple queries with different literals often enough that it
+ * should be prepared.
+ */
+public final class PreparationCandidate {
+
+    private final String statement;
+    private final long executions;
+    private final int distinctStatements;
+    private final List<String> examples;
+
+    PreparationCandidate(String statement, long executions, int distinctStatements, List<String> examples) {
+        this.statement = statement;
+        this.executions = executions;
+        this.distinctStatements = distinctStatements;
+        this.examples = Collections.unmodifiableList(examples);
+    }
+
+    /**
+     * @return the statement to prepare instead, with a bind marker in place of each literal
+     */
+    public String getSuggestedStatement() {
+        return statement;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return how many different statements had this shape
+     */
+    public int getDistinctStatements() {
+        return distinctStatements;
+    }
+
+    /**
+     * @return the first few statements executed with this shape
+     */
+    public List<String> getExamples() {
+        return examples;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparationCandidate{" +
+                "suggestedStatement='" + statement + '\'' +
+                ", executions=" + executions +
+                ", distinctStatements=" + distinctStatements +
+                ", examples=" + examples +
+                '}';
+    }
+}
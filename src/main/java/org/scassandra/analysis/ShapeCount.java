@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+/**
+ * How many times a statement shape was executed, either in one test or across all of them.
+ */
+public final class ShapeCount {
+
+    private final String shape;
+    private final String test;
+    private final long simpleExecutions;
+    private final long preparedExecutions;
+    private final int tests;
+
+    ShapeCount(String shape, String test, long simpleExecutions, long preparedExecutions, int tests) {
+        this.shape = shape;
+        this.test = test;
+        this.simpleExecutions = simpleExecutions;
+        this.preparedExecutions = preparedExecutions;
+        this.tests = tests;
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    /**
+     * @return the test the shape was executed in, null for counts across all tests
+     */
+    public String getTest() {
+        return test;
+    }
+
+    public long getExecutions() {
+        return simpleExecutions + preparedExecutions;
+    }
+
+    /**
+     * @return executions as simple, unprepared, queries
+     */
+    public long getSimpleExecutions() {
+        return simpleExecutions;
+    }
+
+    public long getPreparedExecutions() {
+        return preparedExecutions;
+    }
+
+    /**
+     * @return the number of tests the shape was executed in
+     */
+    public int getTests() {
+        return tests;
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeCount{" +
+                "shape='" + shape + '\'' +
+                (test != null ? ", test='" + test + '\'' : "") +
+                ", simpleExecutions=" + simpleExecutions +
+                ", preparedExecutions=" + preparedExecutions +
+                ", tests=" + tests +
+                '}';
+    }
+}
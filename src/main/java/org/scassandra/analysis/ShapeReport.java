@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.util.*;
+
+/**
+ * Executions of each statement shape across all tests, most executed first, and the shapes executed
+ * more than the threshold in a single test, created by a {@link ShapeReporter}.
+ */
+public final class ShapeReport {
+
+    private static final Comparator<ShapeCount> MOST_EXECUTED_FIRST = new Comparator<ShapeCount>() {
+        @Override
+        public int compare(ShapeCount first, ShapeCount second) {
+            if (first.getExecutions() != second.getExecutions()) {
+                return first.getExecutions() > second.getExecutions() ? -1 : 1;
+            }
+            int byShape = first.getShape().compareTo(second.getShape());
+            if (byShape != 0 || first.getTest() == null) {
+                return byShape;
+            }
+            return first.getTest().compareTo(second.getTest());
+        }
+    };
+
+    private final int threshold;
+    private final List<ShapeCount> shapes;
+    private final List<ShapeCount> hotShapes;
+
+    ShapeReport(int threshold, List<ShapeCount> shapes, List<ShapeCount> hotShapes) {
+        Collections.sort(shapes, MOST_EXECUTED_FIRST);
+        Collections.sort(hotShapes, MOST_EXECUTED_FIRST);
+        this.threshold = threshold;
+        this.shapes = Collections.unmodifiableList(shapes);
+        this.hotShapes = Collections.unmodifiableList(hotShapes);
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * @return every shape with its executions across all tests, most executed first
+     */
+    public List<ShapeCount> getShapes() {
+        return shapes;
+    }
+
+    public List<ShapeCount> getTopShapes(int limit) {
+        return shapes.subList(0, Math.min(limit, shapes.size()));
+    }
+
+    /**
+     * @return shapes executed more than the threshold in a single test with the test, most executed first
+     */
+    public List<ShapeCount> getHotShapes() {
+        return hotShapes;
+    }
+
+    /**
+     * @param topShapes How many of the most executed shapes to include
+     * @return a compact JSON summary of the top shapes and every hot shape
+     */
+    public String toJson(int topShapes) {
+        Map<String, Object> report = new LinkedHashMap<String, Object>();
+        report.put("threshold", threshold);
+        report.put("shapes", shapes.size());
+        List<Map<String, Object>> top = new ArrayList<Map<String, Object>>();
+        for (ShapeCount shape : getTopShapes(topShapes)) {
+            Map<String, Object> entry = new LinkedHashMap<String, Object>();
+            entry.put("shape", shape.getShape());
+            entry.put("executions", shape.getExecutions());
+            entry.put("simple", shape.getSimpleExecutions());
+            entry.put("prepared", shape.getPreparedExecutions());
+            entry.put("tests", shape.getTests());
+            top.add(entry);
+        }
+        report.put("topShapes", top);
+        List<Map<String, Object>> hot = new ArrayList<Map<String, Object>>();
+        for (ShapeCount shape : hotShapes) {
+            Map<String, Object> entry = new LinkedHashMap<String, Object>();
+            entry.put("test", shape.getTest());
+            entry.put("shape", shape.getShape());
+            entry.put("executions", shape.getExecutions());
+            hot.add(entry);
+        }
+        report.put("hotShapes", hot);
+        Gson gson = new GsonBuilder().disableHtmlEscaping().create();
+        return gson.toJson(report);
+    }
+
+    /**
+     * @param topShapes How many of the most executed shapes to include
+     * @return an HTML page with tables of the top shapes and every hot shape
+     */
+    public String toHtml(int topShapes) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Statement shapes</title></head><body>\n");
+        html.append("<h1>Hot shapes</h1>\n<p>Executed more than ").append(threshold).append(" times in a single test</p>\n");
+        html.append("<table>\n<tr><th>Test</th><th>Shape</th><th>Executions</th></tr>\n");
+        for (ShapeCount shape : hotShapes) {
+            html.append("<tr><td>").append(escape(shape.getTest())).append("</td><td><code>").append(escape(shape.getShape()))
+                    .append("</code></td><td>").append(shape.getExecutions()).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+        html.append("<h1>Top shapes</h1>\n");
+        html.append("<table>\n<tr><th>Shape</th><th>Executions</th><th>Simple</th><th>Prepared</th><th>Tests</th></tr>\n");
+        for (ShapeCount shape : getTopShapes(topShapes)) {
+            html.append("<tr><td><code>").append(escape(shape.getShape())).append("</code></td><td>").append(shape.getExecutions())
+                    .append("</td><td>").append(shape.getSimpleExecutions()).append("</td><td>").append(shape.getPreparedExecutions())
+                    .append("</td><td>").append(shape.getTests()).append("</td></tr>\n");
+        }
+        html.append("</table>\n</body></html>\n");
+        return html.toString();
+    }
+
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    escaped.append("&amp;");
+                    break;
+                case '<':
+                    escaped.append("&lt;");
+                    break;
+                case '>':
+                    escaped.append("&gt;");
+                    break;
+                case '"':
+                    escaped.append("&quot;");
+                    break;
+                case '\'':
+                    escaped.append("&#39;");
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "ShapeReport{" +
+                "threshold=" + threshold +
+                ", shapes=" + shapes +
+                ", hotShapes=" + hotShapes +
+                '}';
+    }
+}
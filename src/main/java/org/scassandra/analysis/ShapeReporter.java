@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.scassandra.http.client.ActivityClient;
+import org.scassandra.http.client.PreparedStatementExecution;
+import org.scassandra.http.client.Query;
+
+import java.util.*;
+
+/**
+ * Counts how many times each statement shape is executed per test, to catch N+1 query patterns and
+ * hot statements. Record each test's activity before it is cleared, for example in an @After method:
+ * <pre>
+ * reporter.record(testName.getMethodName(), scassandra.activityClient());
+ * </pre>
+ * then write the {@link ShapeReport} once all the tests have run.
+ * <p>
+ * Thread safe.
+ */
+public class ShapeReporter {
+
+    private final int threshold;
+    private final StatementShapes shapes;
+    // test to shape to simple and prepared executions
+    private final Map<String, Map<String, long[]>> countsByTest = new LinkedHashMap<String, Map<String, long[]>>();
+
+    /**
+     * @param threshold Executions of one shape in one test above which the shape is reported as hot
+     */
+    public ShapeReporter(int threshold) {
+        this(threshold, new StatementShapes());
+    }
+
+    public ShapeReporter(int threshold, StatementShapes shapes) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold can't be negative: " + threshold);
+        }
+        this.threshold = threshold;
+        this.shapes = shapes;
+    }
+
+    /**
+     * Records the queries and prepared statement executions the client's Scassandra has recorded.
+     */
+    public void record(String test, ActivityClient activityClient) {
+        record(test, activityClient.retrieveQueries(), activityClient.retrievePreparedStatementExecutions());
+    }
+
+    public void record(String test, List<Query> queries, List<PreparedStatementExecution> executions) {
+        // shape outside the lock, the shapes cache is thread safe
+        List<String> queryShapes = new ArrayList<String>(queries.size());
+        for (Query query : queries) {
+            queryShapes.add(shapes.shapeOf(query.getQuery()));
+        }
+        List<String> executionShapes = new ArrayList<String>(executions.size());
+        for (PreparedStatementExecution execution : executions) {
+            executionShapes.add(shapes.shapeOf(execution.getPreparedStatementText()));
+        }
+        synchronized (countsByTest) {
+            Map<String, long[]> counts = countsByTest.get(test);
+            if (counts == null) {
+                counts = new HashMap<String, long[]>();
+                countsByTest.put(test, counts);
+            }
+            count(counts, queryShapes, 0);
+            count(counts, executionShapes, 1);
+        }
+    }
+
+    public ShapeReport report() {
+        Map<String, long[]> totals = new HashMap<String, long[]>();
+        Map<String, Integer> tests = new HashMap<String, Integer>();
+        List<ShapeCount> hotShapes = new ArrayList<ShapeCount>();
+        synchronized (countsByTest) {
+            for (Map.Entry<String, Map<String, long[]>> test : countsByTest.entrySet()) {
+                for (Map.Entry<String, long[]> shape : test.getValue().entrySet()) {
+                    long[] counts = shape.getValue();
+                    long[] total = totals.get(shape.getKey());
+                    if (total == null) {
+                        total = new long[2];
+                        totals.put(shape.getKey(), total);
+                        tests.put(shape.getKey(), 0);
+                    }
+                    total[0] += counts[0];
+                    total[1] += counts[1];
+                    tests.put(shape.getKey(), tests.get(shape.getKey()) + 1);
+                    if (counts[0] + counts[1] > threshold) {
+                        hotShapes.add(new ShapeCount(shape.getKey(), test.getKey(), counts[0], counts[1], 1));
+                    }
+                }
+            }
+        }
+        List<ShapeCount> shapeCounts = new ArrayList<ShapeCount>();
+        for (Map.Entry<String, long[]> total : totals.entrySet()) {
+            shapeCounts.add(new ShapeCount(total.getKey(), null, total.getValue()[0], total.getValue()[1], tests.get(total.getKey())));
+        }
+        return new ShapeReport(threshold, shapeCounts, hotShapes);
+    }
+
+    public void clear() {
+        synchronized (countsByTest) {
+            countsByTest.clear();
+        }
+    }
+
+    private static void count(Map<String, long[]> counts, List<String> shapes, int kind) {
+        for (String shape : shapes) {
+            long[] count = counts.get(shape);
+            if (count == null) {
+                count = new long[2];
+                counts.put(shape, count);
+            }
+            count[kind]++;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Normalises CQL statements into shapes: literals and bind markers become ?, IN lists and collection
+ * literals become a single ?, unquoted words are lower cased and whitespace is normalised. Statements
+ * that only differ by their literals have the same shape, and a shape is valid CQL that can be
+ * prepared. Shapes are cached as tests tend to run the same statements many times.
+ * <p>
+ * Thread safe.
+ */
+public final class StatementShapes {
+
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final Pattern UUID = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Set<String> LITERAL_WORDS = new HashSet<String>(Arrays.asList("true", "false", "nan", "infinity"));
+    private static final Set<String> NO_SPACE_BEFORE = new HashSet<String>(Arrays.asList(",", ")", "]", "}", ".", ":", ";"));
+    private static final Set<String> NO_SPACE_AFTER = new HashSet<String>(Arrays.asList("(", "[", "{", "."));
+
+    private enum Kind {
+        WORD, QUOTED, LITERAL, MARKER, PUNCTUATION
+    }
+
+    private static final class Token {
+        private final Kind kind;
+        private final String text;
+
+        private Token(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+
+    private static final Token MARKER = new Token(Kind.MARKER, "?");
+
+    private final Map<String, String> cache;
+
+    public StatementShapes() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize Most recently used statements to keep the shapes of
+     */
+    public StatementShapes(final int cacheSize) {
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Cache size can't be negative: " + cacheSize);
+        }
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @param statement CQL statement
+     * @return the statement's shape
+     */
+    public String shapeOf(String statement) {
+        if (statement == null) {
+            throw new IllegalArgumentException("null statement");
+        }
+        synchronized (cache) {
+            String shape = cache.get(statement);
+            if (shape != null) {
+                return shape;
+            }
+        }
+        String shape = render(collapse(tokenise(statement)));
+        synchronized (cache) {
+            cache.put(statement, shape);
+        }
+        return shape;
+    }
+
+    private static List<Token> tokenise(String cql) {
+        List<Token> tokens = new ArrayList<Token>();
+        int i = 0;
+        int length = cql.length();
+        while (i < length) {
+            char c = cql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                i = skipQuoted(cql, i, '\'');
+                tokens.add(MARKER);
+            } else if (c == '"') {
+                int end = skipQuoted(cql, i, '"');
+                tokens.add(new Token(Kind.QUOTED, cql.substring(i, end)));
+                i = end;
+            } else if (c == '$' && cql.startsWith("$$", i)) {
+                int end = cql.indexOf("$$", i + 2);
+                i = end < 0 ? length : end + 2;
+                tokens.add(MARKER);
+            } else if (c == '?') {
+                i++;
+                tokens.add(MARKER);
+            } else if (c == ':' && i + 1 < length && isWordStart(cql.charAt(i + 1)) && !followsWord(tokens)) {
+                // a named bind marker rather than a key in a map or UDT literal
+                i = skipWord(cql, i + 1);
+                tokens.add(MARKER);
+            } else if (isWordPart(c) || (c == '-' && i + 1 < length && Character.isDigit(cql.charAt(i + 1)) && !followsValue(tokens))) {
+                int end = endOfLiteral(cql, i);
+                if (end > i) {
+                    tokens.add(MARKER);
+                    i = end;
+                } else {
+                    end = skipWord(cql, i);
+                    String word = cql.substring(i, end).toLowerCase(Locale.ENGLISH);
+                    tokens.add(LITERAL_WORDS.contains(word) ? MARKER : new Token(Kind.WORD, word));
+                    i = end;
+                }
+            } else if ((c == '<' || c == '>' || c == '!') && i + 1 < length && cql.charAt(i + 1) == '=') {
+                tokens.add(new Token(Kind.PUNCTUATION, cql.substring(i, i + 2)));
+                i += 2;
+            } else {
+                tokens.add(new Token(Kind.PUNCTUATION, String.valueOf(c)));
+                i++;
+            }
+        }
+        while (!tokens.isEmpty() && tokens.get(tokens.size() - 1).text.equals(";")) {
+            tokens.remove(tokens.size() - 1);
+        }
+        return tokens;
+    }
+
+    /*
+    Returns the end of the uuid, blob or number starting at start, or start if there isn't one
+     */
+    private static int endOfLiteral(String cql, int start) {
+        int length = cql.length();
+        if (start + 36 <= length && UUID.matcher(cql.substring(start, start + 36)).matches()
+                && (start + 36 == length || !isWordPart(cql.charAt(start + 36)))) {
+            return start + 36;
+        }
+        char first = cql.charAt(start);
+        if (first != '-' && !Character.isDigit(first)) {
+            return start;
+        }
+        if (first == '0' && start + 1 < length && (cql.charAt(start + 1) == 'x' || cql.charAt(start + 1) == 'X')) {
+            return skipWord(cql, start);
+        }
+        int i = start + 1;
+        while (i < length && Character.isDigit(cql.charAt(i))) {
+            i++;
+        }
+        if (i + 1 < length && cql.charAt(i) == '.' && Character.isDigit(cql.charAt(i + 1))) {
+            i++;
+            while (i < length && Character.isDigit(cql.charAt(i))) {
+                i++;
+            }
+        }
+        if (i < length && (cql.charAt(i) == 'e' || cql.charAt(i) == 'E')) {
+            int exponent = i + 1;
+            if (exponent < length && (cql.charAt(exponent) == '+' || cql.charAt(exponent) == '-')) {
+                exponent++;
+            }
+            if (exponent < length && Character.isDigit(cql.charAt(exponent))) {
+                i = exponent;
+                while (i < length && Character.isDigit(cql.charAt(i))) {
+                    i++;
+                }
+            }
+        }
+        return i;
+    }
+
+    /*
+    IN lists and collection literals of only literals become a single marker, element access such as
+    map['key'] and literals with field names such as UDTs are kept
+     */
+    private static List<Token> collapse(List<Token> tokens) {
+        List<Token> collapsed = new ArrayList<Token>();
+        int i = 0;
+        while (i < tokens.size()) {
+            Token token = tokens.get(i);
+            Token previous = collapsed.isEmpty() ? null : collapsed.get(collapsed.size() - 1);
+            boolean inList = token.text.equals("(") && previous != null && previous.kind == Kind.WORD && previous.text.equals("in");
+            boolean collection = token.text.equals("{") || (token.text.equals("[") && !isValue(previous));
+            if (token.kind == Kind.PUNCTUATION && (inList || collection)) {
+                int end = endOfLiterals(tokens, i);
+                if (end > i) {
+                    collapsed.add(MARKER);
+                    i = end;
+                    continue;
+                }
+            }
+            collapsed.add(token);
+            i++;
+        }
+        return collapsed;
+    }
+
+    /*
+    Returns the index after the bracket closing the one at open if there are only literals between them,
+    otherwise open
+     */
+    private static int endOfLiterals(List<Token> tokens, int open) {
+        int depth = 0;
+        for (int i = open; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            if (token.kind == Kind.PUNCTUATION) {
+                String text = token.text;
+                if (text.equals("(") || text.equals("[") || text.equals("{")) {
+                    depth++;
+                } else if (text.equals(")") || text.equals("]") || text.equals("}")) {
+                    depth--;
+                    if (depth == 0) {
+                        return i + 1;
+                    }
+                } else if (!text.equals(",") && !text.equals(":")) {
+                    return open;
+                }
+            } else if (token.kind != Kind.MARKER) {
+                return open;
+            }
+        }
+        return open;
+    }
+
+    private static String render(List<Token> tokens) {
+        StringBuilder shape = new StringBuilder();
+        Token previous = null;
+        for (Token token : tokens) {
+            if (previous != null && !NO_SPACE_BEFORE.contains(token.text) && !NO_SPACE_AFTER.contains(previous.text)
+                    && !(token.text.equals("[") && isValue(previous))) {
+                shape.append(' ');
+            }
+            shape.append(token.text);
+            previous = token;
+        }
+        return shape.toString();
+    }
+
+    private static int skipQuoted(String cql, int start, char quote) {
+        int i = start + 1;
+        while (i < cql.length()) {
+            if (cql.charAt(i) == quote) {
+                if (i + 1 < cql.length() && cql.charAt(i + 1) == quote) {
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            } else {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static int skipWord(String cql, int start) {
+        int i = start;
+        while (i < cql.length() && isWordPart(cql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWordStart(char c) {
+        return Character.isLetter(c) || c == '_';
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isValue(Token token) {
+        return token != null && (token.kind == Kind.WORD || token.kind == Kind.QUOTED || token.kind == Kind.MARKER
+                || token.text.equals(")") || token.text.equals("]"));
+    }
+
+    private static boolean followsValue(List<Token> tokens) {
+        return !tokens.isEmpty() && isValue(tokens.get(tokens.size() - 1));
+    }
+
+    private static boolean followsWord(List<Token> tokens) {
+        if (tokens.isEmpty()) {
+            return false;
+        }
+        Kind kind = tokens.get(tokens.size() - 1).kind;
+        return kind == Kind.WORD || kind == Kind.QUOTED;
+    }
+}
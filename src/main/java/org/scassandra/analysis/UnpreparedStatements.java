@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.scassandra.http.client.ActivityClient;
+import org.scassandra.http.client.Query;
+
+import java.util.*;
+
+/**
+ * Finds simple queries that should be prepared: statements of the same shape executed more than a
+ * threshold number of times with different literals, each of which Cassandra has to parse again.
+ * Statements always executed with the same text, such as the driver's queries of the system tables,
+ * aren't candidates.
+ */
+public class UnpreparedStatements {
+
+    private static final int EXAMPLES = 3;
+
+    private static final Comparator<PreparationCandidate> MOST_EXECUTED_FIRST = new Comparator<PreparationCandidate>() {
+        @Override
+        public int compare(PreparationCandidate first, PreparationCandidate second) {
+            if (first.getExecutions() != second.getExecutions()) {
+                return first.getExecutions() > second.getExecutions() ? -1 : 1;
+            }
+            return first.getSuggestedStatement().compareTo(second.getSuggestedStatement());
+        }
+    };
+
+    private final int threshold;
+    private final StatementShapes shapes;
+
+    /**
+     * @param threshold Executions of one shape above which it should be prepared
+     */
+    public UnpreparedStatements(int threshold) {
+        this(threshold, new StatementShapes());
+    }
+
+    public UnpreparedStatements(int threshold, StatementShapes shapes) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold can't be negative: " + threshold);
+        }
+        this.threshold = threshold;
+        this.shapes = shapes;
+    }
+
+    /**
+     * @return candidates among the queries the client's Scassandra has recorded, most executed first
+     */
+    public List<PreparationCandidate> candidates(ActivityClient activityClient) {
+        return candidates(activityClient.retrieveQueries());
+    }
+
+    /**
+     * @param queries Recorded queries
+     * @return candidates among the queries, most executed first
+     */
+    public List<PreparationCandidate> candidates(List<Query> queries) {
+        Map<String, Set<String>> statementsByShape = new LinkedHashMap<String, Set<String>>();
+        Map<String, Long> executionsByShape = new HashMap<String, Long>();
+        for (Query query : queries) {
+            String shape = shapes.shapeOf(query.getQuery());
+            Set<String> statements = statementsByShape.get(shape);
+            if (statements == null) {
+                statements = new LinkedHashSet<String>();
+                statementsByShape.put(shape, statements);
+                executionsByShape.put(shape, 0L);
+            }
+            statements.add(query.getQuery());
+            executionsByShape.put(shape, executionsByShape.get(shape) + 1);
+        }
+        List<PreparationCandidate> candidates = new ArrayList<PreparationCandidate>();
+        for (Map.Entry<String, Set<String>> shape : statementsByShape.entrySet()) {
+            long executions = executionsByShape.get(shape.getKey());
+            Set<String> statements = shape.getValue();
+            if (executions > threshold && statements.size() > 1) {
+                List<String> examples = new ArrayList<String>(statements).subList(0, Math.min(EXAMPLES, statements.size()));
+                candidates.add(new PreparationCandidate(shape.getKey(), executions, statements.size(), new ArrayList<String>(examples)));
+            }
+        }
+        Collections.sort(candidates, MOST_EXECUTED_FIRST);
+        return candidates;
+    }
+}
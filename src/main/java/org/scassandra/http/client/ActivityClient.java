@@ -15,8 +15,6 @@
  */
 package org.scassandra.http.client;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
@@ -25,13 +23,10 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
-import org.scassandra.cql.CqlType;
-import org.scassandra.http.client.types.GsonCqlTypeDeserialiser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -50,6 +45,7 @@ public class ActivityClient {
 
         private String host = "localhost";
         private int port = 8043;
+        private JsonCodec jsonCodec = new GsonJsonCodec();
 
         private ActivityClientBuilder() {
         }
@@ -64,8 +60,18 @@ public class ActivityClient {
             return this;
         }
 
+        /**
+         * Defaults to a {@link GsonJsonCodec}.
+         * @param jsonCodec Codec used for the responses from Scassandra
+         * @return this builder
+         */
+        public ActivityClientBuilder withJsonCodec(JsonCodec jsonCodec) {
+            this.jsonCodec = jsonCodec;
+            return this;
+        }
+
         public ActivityClient build() {
-            return new ActivityClient(this.host, this.port);
+            return new ActivityClient(this.host, this.port, this.jsonCodec);
         }
     }
 
@@ -75,16 +81,14 @@ public class ActivityClient {
         return new ActivityClientBuilder();
     }
 
-    private Gson gson = new GsonBuilder()
-            .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
-            .create();
-
+    private final JsonCodec jsonCodec;
     private CloseableHttpClient httpClient = HttpClients.createDefault();
     private final String connectionUrl;
     private final String queryUrl;
     private final String preparedStatementExecutionUrl;
 
-    private ActivityClient(String host, int port) {
+    private ActivityClient(String host, int port, JsonCodec jsonCodec) {
+        this.jsonCodec = jsonCodec;
         RequestConfig.Builder requestBuilder = RequestConfig.custom();
         requestBuilder = requestBuilder.setConnectTimeout(500);
         requestBuilder = requestBuilder.setConnectionRequestTimeout(500);
@@ -104,16 +108,21 @@ public class ActivityClient {
      */
     public List<Query> retrieveQueries() {
         HttpGet get = new HttpGet(queryUrl);
+        CloseableHttpResponse response = null;
         try {
-            CloseableHttpResponse response = httpClient.execute(get);
-            String body = EntityUtils.toString(response.getEntity());
-            LOGGER.debug("Received response {}", body);
-            Query[] queries = (Query[]) gson.fromJson(body, (Class) Query[].class);
-            LOGGER.debug("Parsed queries {}", Arrays.toString(queries));
-            return Arrays.asList(queries);
+            response = httpClient.execute(get);
+            ResponseBodyReader body = ResponseBodyReader.of(response.getEntity(), LOGGER.isDebugEnabled());
+            List<Query> queries = jsonCodec.readQueries(body);
+            LOGGER.debug("Received response {}", body.loggedPrefix());
+            LOGGER.debug("Parsed {} queries", queries.size());
+            return queries;
         } catch (IOException e) {
             LOGGER.info(REQUEST_FOR_QUERIES_FAILED, e);
             throw new ActivityRequestFailed(REQUEST_FOR_QUERIES_FAILED, e);
+        } finally {
+            if (response != null) {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
         }
     }
 
@@ -124,17 +133,21 @@ public class ActivityClient {
      */
     public List<Connection> retrieveConnections() {
         HttpGet get = new HttpGet(connectionUrl);
-
+        CloseableHttpResponse response = null;
         try {
-            CloseableHttpResponse response = httpClient.execute(get);
-            String body = EntityUtils.toString(response.getEntity());
-            LOGGER.debug("Received response {}", body);
-            Connection[] queries = (Connection[]) gson.fromJson(body, (Class) Connection[].class);
-            LOGGER.debug("Parsed connections {}", Arrays.toString(queries));
-            return Arrays.asList(queries);
+            response = httpClient.execute(get);
+            ResponseBodyReader body = ResponseBodyReader.of(response.getEntity(), LOGGER.isDebugEnabled());
+            List<Connection> connections = jsonCodec.readConnections(body);
+            LOGGER.debug("Received response {}", body.loggedPrefix());
+            LOGGER.debug("Parsed {} connections", connections.size());
+            return connections;
         } catch (IOException e) {
             LOGGER.info(REQUEST_FOR_CONNECTIONS_FAILED, e);
             throw new ActivityRequestFailed(REQUEST_FOR_CONNECTIONS_FAILED, e);
+        } finally {
+            if (response != null) {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
         }
     }
 
@@ -178,22 +191,27 @@ public class ActivityClient {
      */
     public List<PreparedStatementExecution> retrievePreparedStatementExecutions() {
         HttpGet get = new HttpGet(preparedStatementExecutionUrl);
+        CloseableHttpResponse response = null;
         try {
-            CloseableHttpResponse response = httpClient.execute(get);
-            String body = EntityUtils.toString(response.getEntity());
-            LOGGER.debug("Received response {}", body);
+            response = httpClient.execute(get);
             int statusCode = response.getStatusLine().getStatusCode();
             if (statusCode != 200) {
                 String errorMessage = String.format("Non 200 status code when retrieving prepared statement executions %s", statusCode);
                 LOGGER.info(errorMessage);
                 throw new ActivityRequestFailed(errorMessage);
             }
-            PreparedStatementExecution[] executions = (PreparedStatementExecution[]) gson.fromJson(body, (Class) PreparedStatementExecution[].class);
-            LOGGER.debug("Parsed prepared statement executions {}", Arrays.toString(executions));
-            return Arrays.asList(executions);
+            ResponseBodyReader body = ResponseBodyReader.of(response.getEntity(), LOGGER.isDebugEnabled());
+            List<PreparedStatementExecution> executions = jsonCodec.readPreparedStatementExecutions(body);
+            LOGGER.debug("Received response {}", body.loggedPrefix());
+            LOGGER.debug("Parsed {} prepared statement executions", executions.size());
+            return executions;
         } catch (IOException e) {
             LOGGER.info(REQUEST_FAILED, e);
             throw new ActivityRequestFailed(REQUEST_FAILED, e);
+        } finally {
+            if (response != null) {
+                EntityUtils.consumeQuietly(response.getEntity());
+            }
         }
     }
 
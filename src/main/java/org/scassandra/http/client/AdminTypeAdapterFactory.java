@@ -0,0 +1,658 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import org.scassandra.cql.CqlType;
+import org.scassandra.http.client.types.CqlTypeRegistry;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.*;
+
+/**
+ * Streaming adapters for the types sent to and received from Scassandra's admin port. They read and
+ * write the same JSON as Gson's reflective adapters without reflection or intermediate JsonElement trees.
+ *
+ * Row, variable and config values are arbitrary objects so they are delegated to the Gson instance the
+ * adapters are registered with.
+ */
+final class AdminTypeAdapterFactory implements TypeAdapterFactory {
+
+    static final Type PRIMING_REQUEST_LIST = new TypeToken<List<PrimingRequest>>() {}.getType();
+    static final Type QUERY_LIST = new TypeToken<List<Query>>() {}.getType();
+    static final Type CONNECTION_LIST = new TypeToken<List<Connection>>() {}.getType();
+    static final Type PREPARED_STATEMENT_EXECUTION_LIST = new TypeToken<List<PreparedStatementExecution>>() {}.getType();
+    static final Type OUTCOME_LIST = new TypeToken<List<Outcome>>() {}.getType();
+
+    private final CqlTypeRegistry cqlTypeRegistry;
+
+    AdminTypeAdapterFactory() {
+        this(CqlTypeRegistry.shared());
+    }
+
+    AdminTypeAdapterFactory(CqlTypeRegistry cqlTypeRegistry) {
+        this.cqlTypeRegistry = cqlTypeRegistry;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == PrimingRequest.class) {
+            return (TypeAdapter<T>) new PrimingRequestAdapter(new WhenAdapter(), new ThenAdapter(new Values(gson, cqlTypeRegistry)));
+        } else if (rawType == PrimingRequest.When.class) {
+            return (TypeAdapter<T>) new WhenAdapter();
+        } else if (rawType == PrimingRequest.Then.class) {
+            return (TypeAdapter<T>) new ThenAdapter(new Values(gson, cqlTypeRegistry));
+        } else if (rawType == Query.class) {
+            return (TypeAdapter<T>) new QueryAdapter();
+        } else if (rawType == Connection.class) {
+            return (TypeAdapter<T>) new ConnectionAdapter();
+        } else if (rawType == PreparedStatementExecution.class) {
+            return (TypeAdapter<T>) new PreparedStatementExecutionAdapter(new Values(gson, cqlTypeRegistry));
+        }
+        return null;
+    }
+
+    static final class PrimingRequestAdapter extends TypeAdapter<PrimingRequest> {
+        private final WhenAdapter whenAdapter;
+        private final ThenAdapter thenAdapter;
+
+        PrimingRequestAdapter(WhenAdapter whenAdapter, ThenAdapter thenAdapter) {
+            this.whenAdapter = whenAdapter;
+            this.thenAdapter = thenAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, PrimingRequest value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.getWhen() != null) {
+                out.name("when");
+                whenAdapter.write(out, value.getWhen());
+            }
+            if (value.getThen() != null) {
+                out.name("then");
+                thenAdapter.write(out, value.getThen());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public PrimingRequest read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            PrimingRequest.When when = null;
+            PrimingRequest.Then then = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals("when")) {
+                    when = whenAdapter.read(in);
+                } else if (name.equals("then")) {
+                    then = thenAdapter.read(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrimingRequest(null, when, then);
+        }
+    }
+
+    static final class WhenAdapter extends TypeAdapter<PrimingRequest.When> {
+
+        @Override
+        public void write(JsonWriter out, PrimingRequest.When value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.query != null) {
+                out.name("query").value(value.query);
+            }
+            if (value.queryPattern != null) {
+                out.name("queryPattern").value(value.queryPattern);
+            }
+            if (value.consistency != null) {
+                out.name("consistency").beginArray();
+                for (PrimingRequest.Consistency consistency : value.consistency) {
+                    if (consistency == null) {
+                        out.nullValue();
+                    } else {
+                        out.value(consistency.name());
+                    }
+                }
+                out.endArray();
+            }
+            out.endObject();
+        }
+
+        @Override
+        public PrimingRequest.When read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String query = null;
+            String queryPattern = null;
+            List<PrimingRequest.Consistency> consistency = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals("query")) {
+                    query = Values.readString(in);
+                } else if (name.equals("queryPattern")) {
+                    queryPattern = Values.readString(in);
+                } else if (name.equals("consistency") && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    consistency = new ArrayList<PrimingRequest.Consistency>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        consistency.add(Values.readEnum(in, PrimingRequest.Consistency.class));
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrimingRequest.When(query, queryPattern, consistency);
+        }
+    }
+
+    static final class ThenAdapter extends TypeAdapter<PrimingRequest.Then> {
+        private final Values values;
+
+        ThenAdapter(Values values) {
+            this.values = values;
+        }
+
+        @Override
+        public void write(JsonWriter out, PrimingRequest.Then value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.variable_types != null) {
+                out.name("variable_types");
+                values.writeTypes(out, value.variable_types);
+            }
+            if (value.rows instanceof StreamedRows) {
+                out.name("rows");
+                ((StreamedRows) value.rows).writeRows(out, values);
+            } else if (value.rows != null) {
+                out.name("rows").beginArray();
+                for (Map<String, ?> row : value.rows) {
+                    values.writeValue(out, row);
+                }
+                out.endArray();
+            }
+            if (value.result != null) {
+                out.name("result").value(value.result.name());
+            }
+            if (value.column_types != null) {
+                out.name("column_types").beginObject();
+                for (Map.Entry<String, CqlType> columnType : value.column_types.entrySet()) {
+                    out.name(columnType.getKey());
+                    values.writeType(out, columnType.getValue());
+                }
+                out.endObject();
+            }
+            if (value.fixedDelay != null) {
+                out.name("fixedDelay").value(value.fixedDelay);
+            }
+            if (value.config != null) {
+                out.name("config");
+                values.writeValue(out, value.config);
+            }
+            if (value.delayDistribution != null) {
+                out.name("delayDistribution");
+                values.writeValue(out, value.delayDistribution);
+            }
+            if (value.resultMix != null) {
+                out.name("resultMix");
+                values.writeValue(out, value.resultMix);
+            }
+            if (value.resultSequence != null) {
+                out.name("resultSequence");
+                values.writeValue(out, value.resultSequence);
+            }
+            out.endObject();
+        }
+
+        @Override
+        public PrimingRequest.Then read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            List<CqlType> variableTypes = null;
+            List<Map<String, ?>> rows = null;
+            PrimingRequest.Result result = null;
+            Map<String, CqlType> columnTypes = null;
+            Long fixedDelay = null;
+            Map<String, Object> config = null;
+            DelayDistribution delayDistribution = null;
+            List<Outcome> resultMix = null;
+            List<Outcome> resultSequence = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("variable_types")) {
+                    variableTypes = values.readTypes(in);
+                } else if (name.equals("rows")) {
+                    rows = new ArrayList<Map<String, ?>>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        rows.add(values.readObject(in));
+                    }
+                    in.endArray();
+                } else if (name.equals("result")) {
+                    result = Values.readEnum(in, PrimingRequest.Result.class);
+                } else if (name.equals("column_types")) {
+                    columnTypes = new HashMap<String, CqlType>();
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        columnTypes.put(in.nextName(), values.readType(in));
+                    }
+                    in.endObject();
+                } else if (name.equals("fixedDelay")) {
+                    fixedDelay = in.nextLong();
+                } else if (name.equals("config")) {
+                    config = values.readObject(in);
+                } else if (name.equals("delayDistribution")) {
+                    delayDistribution = values.read(in, DelayDistribution.class);
+                } else if (name.equals("resultMix")) {
+                    resultMix = values.read(in, OUTCOME_LIST);
+                } else if (name.equals("resultSequence")) {
+                    resultSequence = values.read(in, OUTCOME_LIST);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PrimingRequest.Then(variableTypes, rows, result, columnTypes, fixedDelay, config, delayDistribution, resultMix, resultSequence);
+        }
+    }
+
+    static final class QueryAdapter extends TypeAdapter<Query> {
+
+        @Override
+        public void write(JsonWriter out, Query value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.getQuery() != null) {
+                out.name("query").value(value.getQuery());
+            }
+            if (value.getConsistency() != null) {
+                out.name("consistency").value(value.getConsistency());
+            }
+            if (value.getResult() != null) {
+                out.name("result").value(value.getResult());
+            }
+            Timing.write(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public Query read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String query = null;
+            String consistency = null;
+            String result = null;
+            Timing timing = new Timing();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals("query")) {
+                    query = Values.readString(in);
+                } else if (name.equals("consistency")) {
+                    consistency = Values.readString(in);
+                } else if (name.equals("result")) {
+                    result = Values.readString(in);
+                } else if (!timing.read(name, in)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Query(query, consistency, result,
+                    timing.connectionId, timing.receivedAt, timing.receivedNanos, timing.respondedAt, timing.respondedNanos);
+        }
+    }
+
+    static final class ConnectionAdapter extends TypeAdapter<Connection> {
+
+        @Override
+        public void write(JsonWriter out, Connection value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.getResult() != null) {
+                out.name("result").value(value.getResult());
+            }
+            if (value.getHandshakeDelay() != null) {
+                out.name("handshakeDelay").value(value.getHandshakeDelay());
+            }
+            Timing.write(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public Connection read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String result = null;
+            Long handshakeDelay = null;
+            Timing timing = new Timing();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (name.equals("result")) {
+                    result = Values.readString(in);
+                } else if (name.equals("handshakeDelay")) {
+                    handshakeDelay = Values.readLong(in);
+                } else if (!timing.read(name, in)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Connection(result, handshakeDelay,
+                    timing.connectionId, timing.receivedAt, timing.receivedNanos, timing.respondedAt, timing.respondedNanos);
+        }
+    }
+
+    static final class PreparedStatementExecutionAdapter extends TypeAdapter<PreparedStatementExecution> {
+        private final Values values;
+
+        PreparedStatementExecutionAdapter(Values values) {
+            this.values = values;
+        }
+
+        @Override
+        public void write(JsonWriter out, PreparedStatementExecution value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value.preparedStatementText != null) {
+                out.name("preparedStatementText").value(value.preparedStatementText);
+            }
+            if (value.consistency != null) {
+                out.name("consistency").value(value.consistency);
+            }
+            if (value.variables != null) {
+                out.name("variables");
+                values.writeValue(out, value.variables);
+            }
+            if (value.variableTypes != null) {
+                out.name("variableTypes");
+                values.writeTypes(out, value.variableTypes);
+            }
+            if (value.result != null) {
+                out.name("result").value(value.result);
+            }
+            Timing.write(out, value);
+            out.endObject();
+        }
+
+        @Override
+        public PreparedStatementExecution read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String preparedStatementText = null;
+            String consistency = null;
+            List<Object> variables = null;
+            List<CqlType> variableTypes = null;
+            String result = null;
+            Timing timing = new Timing();
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (name.equals("preparedStatementText")) {
+                    preparedStatementText = in.nextString();
+                } else if (name.equals("consistency")) {
+                    consistency = in.nextString();
+                } else if (name.equals("variables")) {
+                    variables = values.readObject(in);
+                } else if (name.equals("variableTypes")) {
+                    variableTypes = values.readTypes(in);
+                } else if (name.equals("result")) {
+                    result = in.nextString();
+                } else if (!timing.read(name, in)) {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new PreparedStatementExecution(preparedStatementText, consistency, variables, variableTypes, result,
+                    timing.connectionId, timing.receivedAt, timing.receivedNanos, timing.respondedAt, timing.respondedNanos);
+        }
+    }
+
+    /*
+    The fields every TimedActivity has, read while reading the rest of the activity
+     */
+    static final class Timing {
+        String connectionId;
+        Long receivedAt;
+        Long receivedNanos;
+        Long respondedAt;
+        Long respondedNanos;
+
+        boolean read(String name, JsonReader in) throws IOException {
+            if (name.equals("connectionId")) {
+                connectionId = Values.readString(in);
+            } else if (name.equals("receivedAt")) {
+                receivedAt = Values.readLong(in);
+            } else if (name.equals("receivedNanos")) {
+                receivedNanos = Values.readLong(in);
+            } else if (name.equals("respondedAt")) {
+                respondedAt = Values.readLong(in);
+            } else if (name.equals("respondedNanos")) {
+                respondedNanos = Values.readLong(in);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        static void write(JsonWriter out, TimedActivity value) throws IOException {
+            if (value.getConnectionId() != null) {
+                out.name("connectionId").value(value.getConnectionId());
+            }
+            if (value.getReceivedAt() != null) {
+                out.name("receivedAt").value(value.getReceivedAt());
+            }
+            if (value.getReceivedNanos() != null) {
+                out.name("receivedNanos").value(value.getReceivedNanos());
+            }
+            if (value.getRespondedAt() != null) {
+                out.name("respondedAt").value(value.getRespondedAt());
+            }
+            if (value.getRespondedNanos() != null) {
+                out.name("respondedNanos").value(value.getRespondedNanos());
+            }
+        }
+    }
+
+    /**
+     * Reads and writes the values nested in the wire types: CqlTypes as their type strings and everything
+     * else as Gson would for a field declared as Object.
+     */
+    static final class Values {
+        private final Gson gson;
+        private final CqlTypeRegistry cqlTypeRegistry;
+        private TypeAdapter<Object> objectAdapter;
+
+        Values(Gson gson, CqlTypeRegistry cqlTypeRegistry) {
+            this.gson = gson;
+            this.cqlTypeRegistry = cqlTypeRegistry;
+        }
+
+        @SuppressWarnings("unchecked")
+        void writeValue(JsonWriter out, Object value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+            } else if (value instanceof String) {
+                out.value((String) value);
+            } else if (value instanceof Boolean) {
+                out.value((Boolean) value);
+            } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                    || value instanceof BigDecimal || value instanceof BigInteger) {
+                out.value((Number) value);
+            } else if (value instanceof Map && hasStringKeys((Map<?, ?>) value)) {
+                out.beginObject();
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    out.name((String) entry.getKey());
+                    writeValue(out, entry.getValue());
+                }
+                out.endObject();
+            } else if (value instanceof Collection) {
+                out.beginArray();
+                for (Object element : (Collection<?>) value) {
+                    writeValue(out, element);
+                }
+                out.endArray();
+            } else {
+                // floating point numbers, complex map keys and everything else are left to Gson and its configuration
+                ((TypeAdapter<Object>) gson.getAdapter(value.getClass())).write(out, value);
+            }
+        }
+
+        private static boolean hasStringKeys(Map<?, ?> map) {
+            for (Object key : map.keySet()) {
+                if (!(key instanceof String)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T readObject(JsonReader in) throws IOException {
+            if (objectAdapter == null) {
+                objectAdapter = gson.getAdapter(Object.class);
+            }
+            return (T) objectAdapter.read(in);
+        }
+
+        <T> T read(JsonReader in, Class<T> type) throws IOException {
+            return gson.getAdapter(type).read(in);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T read(JsonReader in, Type type) throws IOException {
+            return (T) gson.getAdapter(TypeToken.get(type)).read(in);
+        }
+
+        void writeType(JsonWriter out, CqlType type) throws IOException {
+            if (type == null) {
+                out.nullValue();
+            } else {
+                out.value(type.serialise());
+            }
+        }
+
+        void writeTypes(JsonWriter out, List<CqlType> types) throws IOException {
+            out.beginArray();
+            for (CqlType type : types) {
+                writeType(out, type);
+            }
+            out.endArray();
+        }
+
+        CqlType readType(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return cqlTypeRegistry.lookup(in.nextString());
+        }
+
+        List<CqlType> readTypes(JsonReader in) throws IOException {
+            List<CqlType> types = new ArrayList<CqlType>();
+            in.beginArray();
+            while (in.hasNext()) {
+                types.add(readType(in));
+            }
+            in.endArray();
+            return types;
+        }
+
+        static String readString(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextString();
+        }
+
+        static Long readLong(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return in.nextLong();
+        }
+
+        /*
+        Unknown names map to null as they do with Gson's enum adapter
+         */
+        static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> enumType) throws IOException {
+            String name = readString(in);
+            if (name == null) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(enumType, name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Sends JSON that is already encoded, for example from a memory-mapped file, without copying it into
+ * an array first.
+ */
+final class ByteBufferEntity extends AbstractHttpEntity {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ByteBuffer content;
+
+    ByteBufferEntity(ByteBuffer content) {
+        this.content = content.asReadOnlyBuffer();
+        setContentType(ContentType.APPLICATION_JSON.toString());
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return content.remaining();
+    }
+
+    /**
+     * @return a stream over a view of the buffer, the content isn't copied
+     */
+    @Override
+    public InputStream getContent() {
+        return new ByteBufferInputStream(content.duplicate());
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        ByteBuffer remaining = content.duplicate();
+        byte[] chunk = new byte[Math.min(CHUNK_SIZE, remaining.remaining())];
+        while (remaining.hasRemaining()) {
+            int length = Math.min(chunk.length, remaining.remaining());
+            remaining.get(chunk, 0, length);
+            outstream.write(chunk, 0, length);
+        }
+        outstream.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(len, buffer.remaining());
+            buffer.get(b, off, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,668 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.stream.JsonWriter;
+import org.scassandra.http.client.types.ColumnMetadata;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Rows for large result set primes stored a column at a time. bigint and counter columns are backed by a
+ * long[], int by an int[], double by a double[], float by a float[], boolean by a BitSet and text, varchar
+ * and ascii by indexes into a dictionary shared by all the text columns. Other types are stored as objects.
+ *
+ * The rows are written straight into the prime's JSON. Accessing a row as a Map creates it on demand.
+ *
+ * <pre>
+ * ColumnarRows rows = ColumnarRows.builder(column("id", BIG_INT), column("name", TEXT))
+ *         .appendLong(0, 1).append(1, "Chris")
+ *         .addRow(2L, "Alex")
+ *         .build();
+ * </pre>
+ */
+public final class ColumnarRows extends StreamedRows implements RandomAccess {
+
+    public static Builder builder(ColumnMetadata... columns) {
+        return new Builder(Arrays.asList(columns));
+    }
+
+    public static Builder builder(List<ColumnMetadata> columns) {
+        return new Builder(columns);
+    }
+
+    public static class Builder {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final List<ColumnMetadata> columns;
+        private final Column[] data;
+        private final Dictionary dictionary = new Dictionary();
+        private boolean built = false;
+
+        private Builder(List<ColumnMetadata> columns) {
+            if (columns.isEmpty()) {
+                throw new IllegalArgumentException("At least one column is required");
+            }
+            this.columns = new ArrayList<ColumnMetadata>(columns);
+            this.data = new Column[columns.size()];
+            Set<String> names = new HashSet<String>();
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnMetadata column = columns.get(i);
+                if (!names.add(column.getName())) {
+                    throw new IllegalArgumentException("Duplicate column " + column.getName());
+                }
+                data[i] = Column.forType(column.getType().serialise(), dictionary, INITIAL_CAPACITY);
+            }
+        }
+
+        /**
+         * Appends a value to each column. Values are boxed, use the append methods to fill columns without boxing.
+         *
+         * @param values One value per column, in the order the columns were declared
+         * @return this builder
+         */
+        public Builder addRow(Object... values) {
+            if (values.length != data.length) {
+                throw new IllegalArgumentException(String.format("Expected %d values but got %d", data.length, values.length));
+            }
+            for (int i = 0; i < values.length; i++) {
+                append(i, values[i]);
+            }
+            return this;
+        }
+
+        public Builder append(int column, Object value) {
+            column(column).append(value);
+            return this;
+        }
+
+        public Builder appendNull(int column) {
+            column(column).appendNull();
+            return this;
+        }
+
+        public Builder appendLong(int column, long value) {
+            column(column).appendLong(value);
+            return this;
+        }
+
+        public Builder appendInt(int column, int value) {
+            column(column).appendInt(value);
+            return this;
+        }
+
+        public Builder appendDouble(int column, double value) {
+            column(column).appendDouble(value);
+            return this;
+        }
+
+        public Builder appendFloat(int column, float value) {
+            column(column).appendFloat(value);
+            return this;
+        }
+
+        public Builder appendBoolean(int column, boolean value) {
+            column(column).appendBoolean(value);
+            return this;
+        }
+
+        public ColumnarRows build() {
+            int size = data[0].size;
+            for (int i = 1; i < data.length; i++) {
+                if (data[i].size != size) {
+                    throw new IllegalStateException(String.format("Column %s has %d values but column %s has %d",
+                            columns.get(i).getName(), data[i].size, columns.get(0).getName(), size));
+                }
+            }
+            built = true;
+            return new ColumnarRows(columns, data, size);
+        }
+
+        private Column column(int column) {
+            if (built) {
+                throw new IllegalStateException("Rows have already been built");
+            }
+            if (column < 0 || column >= data.length) {
+                throw new IndexOutOfBoundsException("No column " + column + ", there are " + data.length + " columns");
+            }
+            return data[column];
+        }
+    }
+
+    private final List<ColumnMetadata> columns;
+    private final String[] names;
+    private final Column[] data;
+    private final int size;
+
+    private ColumnarRows(List<ColumnMetadata> columns, Column[] data, int size) {
+        this.columns = Collections.unmodifiableList(columns);
+        this.data = data;
+        this.size = size;
+        this.names = new String[columns.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = columns.get(i).getName();
+        }
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /*
+    Null values are left out of the Map as they are left out of the JSON
+     */
+    @Override
+    public Map<String, ?> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        Map<String, Object> row = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < data.length; i++) {
+            if (!data[i].isNull(index)) {
+                row.put(names[i], data[i].get(index));
+            }
+        }
+        return row;
+    }
+
+    /*
+    The same as the hash code of the equivalent List of Maps without creating them
+     */
+    @Override
+    public int hashCode() {
+        int hashCode = 1;
+        for (int index = 0; index < size; index++) {
+            int rowHashCode = 0;
+            for (int i = 0; i < data.length; i++) {
+                if (!data[i].isNull(index)) {
+                    rowHashCode += names[i].hashCode() ^ data[i].hashCode(index);
+                }
+            }
+            hashCode = 31 * hashCode + rowHashCode;
+        }
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return super.equals(o);
+    }
+
+    @Override
+    void writeRows(JsonWriter out, AdminTypeAdapterFactory.Values values) throws IOException {
+        out.beginArray();
+        for (int index = 0; index < size; index++) {
+            out.beginObject();
+            for (int i = 0; i < data.length; i++) {
+                if (!data[i].isNull(index)) {
+                    out.name(names[i]);
+                    data[i].write(out, index, values);
+                }
+            }
+            out.endObject();
+        }
+        out.endArray();
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarRows{" +
+                "columns=" + Arrays.toString(names) +
+                ", size=" + size +
+                '}';
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<String, Integer>();
+        private final List<String> strings = new ArrayList<String>();
+
+        int encode(String string) {
+            Integer code = codes.get(string);
+            if (code == null) {
+                code = strings.size();
+                codes.put(string, code);
+                strings.add(string);
+            }
+            return code;
+        }
+
+        String decode(int code) {
+            return strings.get(code);
+        }
+    }
+
+    private static abstract class Column {
+        final BitSet nulls = new BitSet();
+        int size;
+
+        static Column forType(String type, Dictionary dictionary, int capacity) {
+            if (type.equals("bigint") || type.equals("counter")) {
+                return new LongColumn(type, capacity);
+            } else if (type.equals("int")) {
+                return new IntColumn(type, capacity);
+            } else if (type.equals("double")) {
+                return new DoubleColumn(type, capacity);
+            } else if (type.equals("float")) {
+                return new FloatColumn(type, capacity);
+            } else if (type.equals("boolean")) {
+                return new BooleanColumn(type);
+            } else if (type.equals("text") || type.equals("varchar") || type.equals("ascii")) {
+                return new TextColumn(type, dictionary, capacity);
+            }
+            return new ObjectColumn(type, capacity);
+        }
+
+        private final String type;
+
+        Column(String type) {
+            this.type = type;
+        }
+
+        boolean isNull(int index) {
+            return nulls.get(index);
+        }
+
+        void appendNull() {
+            ensureCapacity(size + 1);
+            nulls.set(size);
+            size++;
+        }
+
+        void append(Object value) {
+            if (value == null) {
+                appendNull();
+            } else {
+                appendValue(value);
+            }
+        }
+
+        void appendLong(long value) {
+            throw invalid(value);
+        }
+
+        void appendInt(int value) {
+            appendLong(value);
+        }
+
+        void appendDouble(double value) {
+            throw invalid(value);
+        }
+
+        void appendFloat(float value) {
+            appendDouble(value);
+        }
+
+        void appendBoolean(boolean value) {
+            throw invalid(value);
+        }
+
+        IllegalArgumentException invalid(Object value) {
+            return new IllegalArgumentException(String.format("Invalid value %s for %s column", value, type));
+        }
+
+        static int grow(int length, int required) {
+            return Math.max(required, length + (length >> 1) + 1);
+        }
+
+        abstract void appendValue(Object value);
+
+        abstract void ensureCapacity(int capacity);
+
+        abstract Object get(int index);
+
+        abstract int hashCode(int index);
+
+        abstract void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException;
+    }
+
+    private static final class LongColumn extends Column {
+        private long[] values;
+
+        LongColumn(String type, int capacity) {
+            super(type);
+            values = new long[capacity];
+        }
+
+        @Override
+        void appendLong(long value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        void appendValue(Object value) {
+            if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                throw invalid(value);
+            }
+            appendLong(((Number) value).longValue());
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        int hashCode(int index) {
+            long value = values[index];
+            return (int) (value ^ (value >>> 32));
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            out.value(this.values[index]);
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private int[] values;
+
+        IntColumn(String type, int capacity) {
+            super(type);
+            values = new int[capacity];
+        }
+
+        @Override
+        void appendInt(int value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        void appendLong(long value) {
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw invalid(value);
+            }
+            appendInt((int) value);
+        }
+
+        @Override
+        void appendValue(Object value) {
+            if (!(value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                throw invalid(value);
+            }
+            appendInt(((Number) value).intValue());
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        int hashCode(int index) {
+            return values[index];
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            out.value(this.values[index]);
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        private double[] values;
+
+        DoubleColumn(String type, int capacity) {
+            super(type);
+            values = new double[capacity];
+        }
+
+        @Override
+        void appendDouble(double value) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                throw invalid(value);
+            }
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        void appendValue(Object value) {
+            if (!(value instanceof Double || value instanceof Float)) {
+                throw invalid(value);
+            }
+            appendDouble(((Number) value).doubleValue());
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        int hashCode(int index) {
+            long bits = Double.doubleToLongBits(values[index]);
+            return (int) (bits ^ (bits >>> 32));
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            out.value(this.values[index]);
+        }
+    }
+
+    private static final class FloatColumn extends Column {
+        private float[] values;
+
+        FloatColumn(String type, int capacity) {
+            super(type);
+            values = new float[capacity];
+        }
+
+        @Override
+        void appendFloat(float value) {
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                throw invalid(value);
+            }
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        void appendValue(Object value) {
+            if (!(value instanceof Float)) {
+                throw invalid(value);
+            }
+            appendFloat((Float) value);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        int hashCode(int index) {
+            return Float.floatToIntBits(values[index]);
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            // written through Float.toString as Gson does, 0.1f rather than 0.10000000149011612
+            out.value(Float.valueOf(this.values[index]));
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+        private final BitSet values = new BitSet();
+
+        BooleanColumn(String type) {
+            super(type);
+        }
+
+        @Override
+        void appendBoolean(boolean value) {
+            values.set(size++, value);
+        }
+
+        @Override
+        void appendValue(Object value) {
+            if (!(value instanceof Boolean)) {
+                throw invalid(value);
+            }
+            appendBoolean((Boolean) value);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+        }
+
+        @Override
+        Object get(int index) {
+            return values.get(index);
+        }
+
+        @Override
+        int hashCode(int index) {
+            return Boolean.valueOf(values.get(index)).hashCode();
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            out.value(this.values.get(index));
+        }
+    }
+
+    private static final class TextColumn extends Column {
+        private final Dictionary dictionary;
+        private int[] codes;
+
+        TextColumn(String type, Dictionary dictionary, int capacity) {
+            super(type);
+            this.dictionary = dictionary;
+            this.codes = new int[capacity];
+        }
+
+        @Override
+        void appendValue(Object value) {
+            if (!(value instanceof String)) {
+                throw invalid(value);
+            }
+            ensureCapacity(size + 1);
+            codes[size++] = dictionary.encode((String) value);
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > codes.length) {
+                codes = Arrays.copyOf(codes, grow(codes.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return dictionary.decode(codes[index]);
+        }
+
+        @Override
+        int hashCode(int index) {
+            return dictionary.decode(codes[index]).hashCode();
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            out.value(dictionary.decode(codes[index]));
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(String type, int capacity) {
+            super(type);
+            values = new Object[capacity];
+        }
+
+        @Override
+        void appendLong(long value) {
+            appendValue(value);
+        }
+
+        @Override
+        void appendDouble(double value) {
+            appendValue(value);
+        }
+
+        @Override
+        void appendBoolean(boolean value) {
+            appendValue(value);
+        }
+
+        @Override
+        void appendValue(Object value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+        }
+
+        @Override
+        void ensureCapacity(int capacity) {
+            if (capacity > values.length) {
+                values = Arrays.copyOf(values, grow(values.length, capacity));
+            }
+        }
+
+        @Override
+        Object get(int index) {
+            return values[index];
+        }
+
+        @Override
+        int hashCode(int index) {
+            return values[index].hashCode();
+        }
+
+        @Override
+        void write(JsonWriter out, int index, AdminTypeAdapterFactory.Values values) throws IOException {
+            values.writeValue(out, this.values[index]);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+/**
+ * Limits how many executions of a primed statement are in progress at once, which with a delay models
+ * a node with a fixed number of request threads. Executions beyond the limit receive an overloaded
+ * error, or with a queue delay wait for one to finish, up to that delay.
+ * <p>
+ * The Scassandra server bundled with this client doesn't enforce concurrency limits, so primes with one
+ * are only sent by a client built with {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+ */
+public class ConcurrencyLimitConfig extends Config {
+
+    static final String MAX_CONCURRENT_REQUESTS = "limit.max_concurrent_requests";
+    // not shared with the rate limit's so that a prime can have both limits
+    static final String MAX_QUEUE_DELAY = "limit.concurrency_max_queue_delay";
+
+    private final int maxConcurrentRequests;
+    private final long maxQueueDelay;
+
+    public ConcurrencyLimitConfig(int maxConcurrentRequests) {
+        this(maxConcurrentRequests, 0);
+    }
+
+    /**
+     * @param maxConcurrentRequests Executions allowed in progress at once
+     * @param maxQueueDelay         Longest an execution waits for another to finish in milliseconds before
+     *                              it is overloaded
+     */
+    public ConcurrencyLimitConfig(int maxConcurrentRequests, long maxQueueDelay) {
+        if (maxConcurrentRequests < 1 || maxQueueDelay < 0) {
+            throw new IllegalArgumentException(String.format("Concurrency limit needs at least one request, max concurrent requests %s max queue delay %s",
+                    maxConcurrentRequests, maxQueueDelay));
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueDelay = maxQueueDelay;
+    }
+
+    @Override
+    Map<String, ?> getProperties() {
+        return ImmutableMap.of(
+                MAX_CONCURRENT_REQUESTS, String.valueOf(this.maxConcurrentRequests),
+                MAX_QUEUE_DELAY, String.valueOf(this.maxQueueDelay)
+        );
+    }
+}
@@ -15,11 +15,27 @@
  */
 package org.scassandra.http.client;
 
-public final class Connection {
+public final class Connection implements TimedActivity {
+
+    public static final String SUCCESS = "success";
+    /**
+     * Reset by the binary port as the connection prime's refusal probability came up.
+     */
+    public static final String REFUSED = "refused";
+    /**
+     * Reset by the binary port as the connection prime's max connections were already open.
+     */
+    public static final String MAX_CONNECTIONS = "max_connections";
 
     public static class ConnectionBuilder {
 
         private String result;
+        private Long handshakeDelay;
+        private String connectionId;
+        private Long receivedAt;
+        private Long receivedNanos;
+        private Long respondedAt;
+        private Long respondedNanos;
 
         private ConnectionBuilder() {}
 
@@ -28,8 +44,38 @@ public final class Connection {
             return this;
         }
 
+        public ConnectionBuilder withHandshakeDelay(long handshakeDelay) {
+            this.handshakeDelay = handshakeDelay;
+            return this;
+        }
+
+        public ConnectionBuilder withConnectionId(String connectionId) {
+            this.connectionId = connectionId;
+            return this;
+        }
+
+        public ConnectionBuilder withReceivedAt(long receivedAt) {
+            this.receivedAt = receivedAt;
+            return this;
+        }
+
+        public ConnectionBuilder withReceivedNanos(long receivedNanos) {
+            this.receivedNanos = receivedNanos;
+            return this;
+        }
+
+        public ConnectionBuilder withRespondedAt(long respondedAt) {
+            this.respondedAt = respondedAt;
+            return this;
+        }
+
+        public ConnectionBuilder withRespondedNanos(long respondedNanos) {
+            this.respondedNanos = respondedNanos;
+            return this;
+        }
+
         public Connection build() {
-            return new Connection(this.result);
+            return new Connection(this.result, this.handshakeDelay, this.connectionId, this.receivedAt, this.receivedNanos, this.respondedAt, this.respondedNanos);
         }
 
     }
@@ -37,19 +83,76 @@ public final class Connection {
     public static ConnectionBuilder builder() { return new ConnectionBuilder(); }
 
     private final String result;
-
-    private Connection(String result) {
+    // not part of equals so that recorded connections match ones built without them
+    private final Long handshakeDelay;
+    private final String connectionId;
+    // a connection is received when it is accepted and responded to when it is refused
+    private final Long receivedAt;
+    private final Long receivedNanos;
+    private final Long respondedAt;
+    private final Long respondedNanos;
+
+    Connection(String result, Long handshakeDelay, String connectionId, Long receivedAt, Long receivedNanos, Long respondedAt, Long respondedNanos) {
         this.result = result;
+        this.handshakeDelay = handshakeDelay;
+        this.connectionId = connectionId;
+        this.receivedAt = receivedAt;
+        this.receivedNanos = receivedNanos;
+        this.respondedAt = respondedAt;
+        this.respondedNanos = respondedNanos;
     }
 
     public String getResult() {
         return result;
     }
 
+    /**
+     * @return the handshake delay the connection prime gave the connection in milliseconds, null if none
+     */
+    public Long getHandshakeDelay() {
+        return handshakeDelay;
+    }
+
+    @Override
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    @Override
+    public Long getReceivedAt() {
+        return receivedAt;
+    }
+
+    @Override
+    public Long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    @Override
+    public Long getRespondedAt() {
+        return respondedAt;
+    }
+
+    @Override
+    public Long getRespondedNanos() {
+        return respondedNanos;
+    }
+
+    @Override
+    public Long getServiceTimeNanos() {
+        return receivedNanos != null && respondedNanos != null ? respondedNanos - receivedNanos : null;
+    }
+
     @Override
     public String toString() {
         return "Connection{" +
                 "result='" + result + '\'' +
+                (handshakeDelay != null ? ", handshakeDelay=" + handshakeDelay : "") +
+                (connectionId != null ? ", connectionId='" + connectionId + '\'' : "") +
+                (receivedAt != null ? ", receivedAt=" + receivedAt : "") +
+                (receivedNanos != null ? ", receivedNanos=" + receivedNanos : "") +
+                (respondedAt != null ? ", respondedAt=" + respondedAt : "") +
+                (respondedNanos != null ? ", respondedNanos=" + respondedNanos : "") +
                 '}';
     }
 
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+/**
+ * How Scassandra's binary port treats new connections: how long the handshake takes, how many
+ * connections it accepts at once and how likely it is to refuse one. Applies to connections made after
+ * it is primed, connections that are refused are recorded with a result of refused or max_connections.
+ */
+public final class ConnectionPrime {
+
+    public static class ConnectionPrimeBuilder {
+
+        private DelayDistribution handshakeDelay;
+        private Integer maxConnections;
+        private double refusalProbability;
+
+        private ConnectionPrimeBuilder() {
+        }
+
+        /**
+         * @param handshakeDelay Delay in milliseconds before the server answers a connection's startup
+         * @return this builder
+         */
+        public ConnectionPrimeBuilder withHandshakeDelay(long handshakeDelay) {
+            return withHandshakeDelay(DelayDistribution.uniform(handshakeDelay, handshakeDelay));
+        }
+
+        public ConnectionPrimeBuilder withHandshakeDelay(DelayDistribution handshakeDelay) {
+            this.handshakeDelay = handshakeDelay;
+            return this;
+        }
+
+        /**
+         * @param maxConnections Connections open at once, further connections are reset as soon as they are accepted
+         * @return this builder
+         */
+        public ConnectionPrimeBuilder withMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param refusalProbability Probability between 0 and 1 that a connection is reset as soon as it is accepted
+         * @return this builder
+         */
+        public ConnectionPrimeBuilder withRefusalProbability(double refusalProbability) {
+            this.refusalProbability = refusalProbability;
+            return this;
+        }
+
+        public ConnectionPrime build() {
+            if (maxConnections != null && maxConnections < 0) {
+                throw new IllegalStateException("Max connections can't be negative: " + maxConnections);
+            }
+            if (refusalProbability < 0 || refusalProbability > 1) {
+                throw new IllegalStateException("Refusal probability must be between 0 and 1: " + refusalProbability);
+            }
+            return new ConnectionPrime(handshakeDelay, maxConnections, refusalProbability);
+        }
+    }
+
+    public static ConnectionPrimeBuilder builder() {
+        return new ConnectionPrimeBuilder();
+    }
+
+    private final DelayDistribution handshakeDelay;
+    private final Integer maxConnections;
+    private final double refusalProbability;
+
+    private ConnectionPrime(DelayDistribution handshakeDelay, Integer maxConnections, double refusalProbability) {
+        this.handshakeDelay = handshakeDelay;
+        this.maxConnections = maxConnections;
+        this.refusalProbability = refusalProbability;
+    }
+
+    public DelayDistribution getHandshakeDelay() {
+        return handshakeDelay;
+    }
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public double getRefusalProbability() {
+        return refusalProbability;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ConnectionPrime that = (ConnectionPrime) o;
+
+        if (Double.compare(that.refusalProbability, refusalProbability) != 0) return false;
+        if (handshakeDelay != null ? !handshakeDelay.equals(that.handshakeDelay) : that.handshakeDelay != null) return false;
+        if (maxConnections != null ? !maxConnections.equals(that.maxConnections) : that.maxConnections != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = handshakeDelay != null ? handshakeDelay.hashCode() : 0;
+        result = 31 * result + (maxConnections != null ? maxConnections.hashCode() : 0);
+        long bits = Double.doubleToLongBits(refusalProbability);
+        result = 31 * result + (int) (bits ^ (bits >>> 32));
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPrime{" +
+                "handshakeDelay=" + handshakeDelay +
+                ", maxConnections=" + maxConnections +
+                ", refusalProbability=" + refusalProbability +
+                '}';
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import java.util.*;
+
+/**
+ * The delay before a primed response is sent, drawn from a distribution rather than fixed, so that a
+ * prime can have the long tail of a real cluster. All delays are in milliseconds and never negative.
+ * <p>
+ * A distribution with a seed produces the same delays each time it is sampled, which makes runs that
+ * depend on the delays reproducible.
+ */
+public final class DelayDistribution {
+
+    public static enum Type {
+        uniform,
+        normal,
+        lognormal,
+        percentiles,
+        bimodal
+    }
+
+    /**
+     * A delay that the given percentage of responses are no slower than.
+     */
+    public static final class Percentile {
+        private final double percentile;
+        private final long delay;
+
+        private Percentile(double percentile, long delay) {
+            this.percentile = percentile;
+            this.delay = delay;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public long getDelay() {
+            return delay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Percentile that = (Percentile) o;
+
+            return Double.compare(that.percentile, percentile) == 0 && delay == that.delay;
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(percentile);
+            int result = (int) (bits ^ (bits >>> 32));
+            result = 31 * result + (int) (delay ^ (delay >>> 32));
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "p" + percentile + "=" + delay;
+        }
+    }
+
+    /**
+     * One of the distributions of a bimodal distribution and the fraction of responses drawn from it.
+     */
+    public static final class Mode {
+        private final double weight;
+        private final DelayDistribution delay;
+
+        private Mode(double weight, DelayDistribution delay) {
+            this.weight = weight;
+            this.delay = delay;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public DelayDistribution getDelay() {
+            return delay;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Mode mode = (Mode) o;
+
+            return Double.compare(mode.weight, weight) == 0 && delay.equals(mode.delay);
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(weight);
+            return 31 * (int) (bits ^ (bits >>> 32)) + delay.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return weight + "x" + delay;
+        }
+    }
+
+    public static class PercentilesBuilder {
+
+        private final SortedMap<Double, Long> percentiles = new TreeMap<Double, Long>();
+
+        private PercentilesBuilder() {
+        }
+
+        /**
+         * @param percentile Greater than 0 and at most 100, for example 99.9
+         * @param delay      Delay in milliseconds that the percentile of responses are no slower than
+         * @return this builder
+         */
+        public PercentilesBuilder withPercentile(double percentile, long delay) {
+            this.percentiles.put(percentile, delay);
+            return this;
+        }
+
+        public DelayDistribution build() {
+            if (percentiles.isEmpty()) {
+                throw new IllegalStateException("Must set at least one percentile");
+            }
+            List<Percentile> table = new ArrayList<Percentile>();
+            long previous = 0;
+            for (Map.Entry<Double, Long> percentile : percentiles.entrySet()) {
+                if (percentile.getKey() <= 0 || percentile.getKey() > 100) {
+                    throw new IllegalStateException("Percentiles must be greater than 0 and at most 100: " + percentile.getKey());
+                }
+                if (percentile.getValue() < previous) {
+                    throw new IllegalStateException("Delays must not decrease as the percentile increases: " + percentiles);
+                }
+                previous = percentile.getValue();
+                table.add(new Percentile(percentile.getKey(), percentile.getValue()));
+            }
+            return new DelayDistribution(Type.percentiles, null, table, null, null);
+        }
+    }
+
+    /**
+     * Draws delays from a distribution, each sampler of a seeded distribution draws the same delays.
+     * Not thread safe.
+     */
+    public static final class Sampler {
+        private final DelayDistribution distribution;
+        private final Random random;
+
+        private Sampler(DelayDistribution distribution, Random random) {
+            this.distribution = distribution;
+            this.random = random;
+        }
+
+        public long nextDelay() {
+            return Math.max(0, Math.round(distribution.sample(random)));
+        }
+    }
+
+    private final Type type;
+    // the two parameters of the distribution: min and max, mean and standard deviation, or median and sigma
+    private final double[] parameters;
+    private final List<Percentile> percentiles;
+    private final List<Mode> modes;
+    private final Long seed;
+
+    private DelayDistribution(Type type, double[] parameters, List<Percentile> percentiles, List<Mode> modes, Long seed) {
+        this.type = type;
+        this.parameters = parameters;
+        this.percentiles = percentiles;
+        this.modes = modes;
+        this.seed = seed;
+    }
+
+    /**
+     * @param min Shortest delay in milliseconds
+     * @param max Longest delay in milliseconds
+     * @return delays equally likely to be anywhere between min and max
+     */
+    public static DelayDistribution uniform(long min, long max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException(String.format("Uniform delays need 0 <= min <= max, min %s max %s", min, max));
+        }
+        return new DelayDistribution(Type.uniform, new double[]{min, max}, null, null, null);
+    }
+
+    /**
+     * @param mean              Mean delay in milliseconds
+     * @param standardDeviation Standard deviation in milliseconds, delays below zero are sent immediately
+     * @return normally distributed delays
+     */
+    public static DelayDistribution normal(double mean, double standardDeviation) {
+        if (mean < 0 || standardDeviation < 0) {
+            throw new IllegalArgumentException(String.format("Normal delays need a mean and standard deviation of at least 0, mean %s standard deviation %s", mean, standardDeviation));
+        }
+        return new DelayDistribution(Type.normal, new double[]{mean, standardDeviation}, null, null, null);
+    }
+
+    /**
+     * @param median Median delay in milliseconds
+     * @param sigma  Standard deviation of the log of the delay, the larger it is the longer the tail
+     * @return log-normally distributed delays
+     */
+    public static DelayDistribution logNormal(double median, double sigma) {
+        if (median <= 0 || sigma < 0) {
+            throw new IllegalArgumentException(String.format("Log-normal delays need a median above 0 and a sigma of at least 0, median %s sigma %s", median, sigma));
+        }
+        return new DelayDistribution(Type.lognormal, new double[]{median, sigma}, null, null, null);
+    }
+
+    /**
+     * Delays that match a table of percentiles such as p50, p99 and p999, interpolated between them.
+     *
+     * @return a builder for the table
+     */
+    public static PercentilesBuilder percentiles() {
+        return new PercentilesBuilder();
+    }
+
+    /**
+     * @param fast         Distribution of most responses
+     * @param slow         Distribution of the slow responses, for example ones that miss a cache
+     * @param slowFraction Fraction of responses that are slow, between 0 and 1
+     * @return delays drawn from fast or slow
+     */
+    public static DelayDistribution bimodal(DelayDistribution fast, DelayDistribution slow, double slowFraction) {
+        if (fast == null || slow == null) {
+            throw new IllegalArgumentException("Bimodal delays need a fast and a slow distribution");
+        }
+        if (slowFraction < 0 || slowFraction > 1) {
+            throw new IllegalArgumentException("Fraction of slow responses must be between 0 and 1: " + slowFraction);
+        }
+        return new DelayDistribution(Type.bimodal, null, null, Arrays.asList(new Mode(1 - slowFraction, fast), new Mode(slowFraction, slow)), null);
+    }
+
+    /**
+     * @param seed Seed for the random numbers the delays are drawn with
+     * @return this distribution with a seed
+     */
+    public DelayDistribution withSeed(long seed) {
+        return new DelayDistribution(type, parameters, percentiles, modes, seed);
+    }
+
+    /**
+     * @return a sampler seeded with this distribution's seed, or a random seed if it has none
+     */
+    public Sampler sampler() {
+        return new Sampler(this, seed == null ? new Random() : new Random(seed));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<Percentile> getPercentiles() {
+        return percentiles == null ? null : Collections.unmodifiableList(percentiles);
+    }
+
+    public List<Mode> getModes() {
+        return modes == null ? null : Collections.unmodifiableList(modes);
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    private double sample(Random random) {
+        switch (type) {
+            case uniform:
+                return parameters[0] + random.nextDouble() * (parameters[1] - parameters[0]);
+            case normal:
+                return parameters[0] + random.nextGaussian() * parameters[1];
+            case lognormal:
+                return parameters[0] * Math.exp(random.nextGaussian() * parameters[1]);
+            case percentiles:
+                return samplePercentiles(random.nextDouble() * 100);
+            case bimodal:
+                double mode = random.nextDouble();
+                for (Mode each : modes) {
+                    mode -= each.weight;
+                    if (mode < 0) {
+                        return each.delay.sample(random);
+                    }
+                }
+                return modes.get(modes.size() - 1).delay.sample(random);
+            default:
+                throw new IllegalStateException("Unknown delay distribution " + type);
+        }
+    }
+
+    /*
+    Linear between the percentiles, from no delay below the first percentile and capped at the last
+     */
+    private double samplePercentiles(double percentile) {
+        double lowerPercentile = 0;
+        double lowerDelay = 0;
+        for (Percentile upper : percentiles) {
+            if (percentile <= upper.percentile) {
+                double fraction = (percentile - lowerPercentile) / (upper.percentile - lowerPercentile);
+                return lowerDelay + fraction * (upper.delay - lowerDelay);
+            }
+            lowerPercentile = upper.percentile;
+            lowerDelay = upper.delay;
+        }
+        return lowerDelay;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        DelayDistribution that = (DelayDistribution) o;
+
+        if (type != that.type) return false;
+        if (!Arrays.equals(parameters, that.parameters)) return false;
+        if (percentiles != null ? !percentiles.equals(that.percentiles) : that.percentiles != null) return false;
+        if (modes != null ? !modes.equals(that.modes) : that.modes != null) return false;
+        if (seed != null ? !seed.equals(that.seed) : that.seed != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = type != null ? type.hashCode() : 0;
+        result = 31 * result + Arrays.hashCode(parameters);
+        result = 31 * result + (percentiles != null ? percentiles.hashCode() : 0);
+        result = 31 * result + (modes != null ? modes.hashCode() : 0);
+        result = 31 * result + (seed != null ? seed.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DelayDistribution{" +
+                "type=" + type +
+                (parameters != null ? ", parameters=" + Arrays.toString(parameters) : "") +
+                (percentiles != null ? ", percentiles=" + percentiles : "") +
+                (modes != null ? ", modes=" + modes : "") +
+                (seed != null ? ", seed=" + seed : "") +
+                '}';
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Rows that are generated while the prime is being sent to Scassandra rather than held in memory, so a
+ * PrimingRequest stays small however many rows it has.
+ *
+ * Generated rows are only equal to themselves, comparing or hashing them would mean generating every row.
+ */
+public final class GeneratedRows extends StreamedRows {
+
+    public interface RowSupplier {
+        /**
+         * Called once per row each time the prime is sent. Must return the same row for the same index.
+         *
+         * @param index From 0 to the number of rows - 1
+         * @return The row
+         */
+        Map<String, ?> row(int index);
+    }
+
+    /**
+     * @param size The number of rows
+     * @param supplier Creates each row from its index
+     * @return Rows that can be sent any number of times
+     */
+    public static GeneratedRows of(int size, RowSupplier supplier) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Number of rows can't be negative: " + size);
+        }
+        return new GeneratedRows(size, supplier, null);
+    }
+
+    /**
+     * The rows are iterated each time the prime is sent, so the Iterable must return the same rows every
+     * time it is iterated. Their number isn't known until they've been iterated, so accessing them by index
+     * or asking for their size iterates them.
+     *
+     * @param rows Iterated while the prime is sent
+     * @return Rows that can be sent any number of times
+     */
+    public static GeneratedRows fromIterable(Iterable<? extends Map<String, ?>> rows) {
+        if (rows == null) {
+            throw new IllegalArgumentException("Rows can't be null");
+        }
+        return new GeneratedRows(-1, null, rows);
+    }
+
+    private final int size;
+    private final RowSupplier supplier;
+    private final Iterable<? extends Map<String, ?>> iterable;
+
+    private GeneratedRows(int size, RowSupplier supplier, Iterable<? extends Map<String, ?>> iterable) {
+        this.size = size;
+        this.supplier = supplier;
+        this.iterable = iterable;
+    }
+
+    @Override
+    public Map<String, ?> get(int index) {
+        if (supplier != null) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return supplier.row(index);
+        }
+        if (index >= 0) {
+            int current = 0;
+            for (Map<String, ?> row : iterable) {
+                if (current++ == index) {
+                    return row;
+                }
+            }
+        }
+        throw new IndexOutOfBoundsException("Index: " + index);
+    }
+
+    @Override
+    public int size() {
+        if (supplier != null) {
+            return size;
+        }
+        int count = 0;
+        for (Iterator<? extends Map<String, ?>> rows = iterable.iterator(); rows.hasNext(); rows.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return supplier != null ? size == 0 : !iterable.iterator().hasNext();
+    }
+
+    @Override
+    public Iterator<Map<String, ?>> iterator() {
+        if (supplier != null) {
+            return super.iterator();
+        }
+        final Iterator<? extends Map<String, ?>> rows = iterable.iterator();
+        return new Iterator<Map<String, ?>>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Map<String, ?> next() {
+                return rows.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    void writeRows(JsonWriter out, AdminTypeAdapterFactory.Values values) throws IOException {
+        out.beginArray();
+        if (supplier != null) {
+            for (int index = 0; index < size; index++) {
+                values.writeValue(out, supplier.row(index));
+            }
+        } else {
+            for (Map<String, ?> row : iterable) {
+                values.writeValue(out, row);
+            }
+        }
+        out.endArray();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        return "GeneratedRows{" +
+                "size=" + (supplier == null ? "unknown" : String.valueOf(size)) +
+                '}';
+    }
+}
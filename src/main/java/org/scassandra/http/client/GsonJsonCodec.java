@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.reflect.TypeToken;
+import org.scassandra.cql.CqlType;
+import org.scassandra.http.client.types.GsonCqlTypeDeserialiser;
+import org.scassandra.http.client.types.GsonCqlTypeSerialiser;
+import org.scassandra.http.client.types.GsonInetAddressSerialiser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The default codec. Pass a Gson instance to customise how values in rows and variables are serialised,
+ * it should be created from {@link #defaultGsonBuilder()}.
+ */
+public class GsonJsonCodec implements JsonCodec {
+
+    private static final Type VERSION = new TypeToken<Map<String, String>>() {}.getType();
+
+    public static GsonBuilder defaultGsonBuilder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(CqlType.class, new GsonCqlTypeSerialiser())
+                .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
+                .registerTypeAdapter(InetAddress.class, new GsonInetAddressSerialiser())
+                .registerTypeAdapterFactory(new AdminTypeAdapterFactory())
+                .enableComplexMapKeySerialization();
+    }
+
+    private final Gson gson;
+
+    public GsonJsonCodec() {
+        this(defaultGsonBuilder().create());
+    }
+
+    public GsonJsonCodec(Gson gson) {
+        this.gson = gson;
+    }
+
+    @Override
+    public void writePrimingRequest(PrimingRequest primingRequest, Writer out) {
+        gson.toJson(primingRequest, PrimingRequest.class, out);
+    }
+
+    @Override
+    public List<PrimingRequest> readPrimingRequests(Reader in) throws IOException {
+        return fromJson(in, AdminTypeAdapterFactory.PRIMING_REQUEST_LIST);
+    }
+
+    @Override
+    public List<Query> readQueries(Reader in) throws IOException {
+        return fromJson(in, AdminTypeAdapterFactory.QUERY_LIST);
+    }
+
+    @Override
+    public List<Connection> readConnections(Reader in) throws IOException {
+        return fromJson(in, AdminTypeAdapterFactory.CONNECTION_LIST);
+    }
+
+    @Override
+    public List<PreparedStatementExecution> readPreparedStatementExecutions(Reader in) throws IOException {
+        return fromJson(in, AdminTypeAdapterFactory.PREPARED_STATEMENT_EXECUTION_LIST);
+    }
+
+    @Override
+    public String readVersion(Reader in) throws IOException {
+        Map<String, String> version = fromJson(in, VERSION);
+        return version.get("version");
+    }
+
+    /*
+    Gson wraps failures of the underlying reader, unwrap them so that a connection failing half way
+    through a response is reported like any other IO failure
+     */
+    private <T> T fromJson(Reader in, Type type) throws IOException {
+        try {
+            return gson.fromJson(in, type);
+        } catch (JsonIOException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Converts the types exchanged with Scassandra's admin port to and from JSON. The PrimingClient and the
+ * ActivityClient use a GsonJsonCodec unless another codec is passed to their builders.
+ *
+ * Implementations must be thread safe.
+ */
+public interface JsonCodec {
+
+    void writePrimingRequest(PrimingRequest primingRequest, Writer out) throws IOException;
+
+    List<PrimingRequest> readPrimingRequests(Reader in) throws IOException;
+
+    List<Query> readQueries(Reader in) throws IOException;
+
+    List<Connection> readConnections(Reader in) throws IOException;
+
+    List<PreparedStatementExecution> readPreparedStatementExecutions(Reader in) throws IOException;
+
+    /**
+     * @param in The response of the version endpoint
+     * @return The server version
+     */
+    String readVersion(Reader in) throws IOException;
+}
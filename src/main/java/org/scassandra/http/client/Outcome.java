@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One of the results a prime with a result mix or sequence can respond with, with the config of its
+ * error, for example a read_request_timeout with a {@link ReadTimeoutConfig}.
+ */
+public final class Outcome {
+
+    private final PrimingRequest.Result result;
+    private final Map<String, Object> config;
+    private final Double weight;
+
+    private Outcome(PrimingRequest.Result result, Map<String, Object> config, Double weight) {
+        this.result = result;
+        this.config = config;
+        this.weight = weight;
+    }
+
+    public static Outcome outcome(PrimingRequest.Result result) {
+        if (result == null) {
+            throw new IllegalArgumentException("Outcome must have a result");
+        }
+        return new Outcome(result, null, null);
+    }
+
+    public static Outcome outcome(PrimingRequest.Result result, Config config) {
+        if (result == null) {
+            throw new IllegalArgumentException("Outcome must have a result");
+        }
+        return new Outcome(result, new HashMap<String, Object>(config.getProperties()), null);
+    }
+
+    /**
+     * @param weight Relative likelihood of this outcome in a result mix, for example 0.02 with 0.98 for
+     *               the rest of the mix to make it 2% of executions
+     * @return this outcome with a weight
+     */
+    public Outcome withWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        return new Outcome(result, config, weight);
+    }
+
+    public PrimingRequest.Result getResult() {
+        return result;
+    }
+
+    public Map<String, Object> getConfig() {
+        return config == null ? null : Collections.unmodifiableMap(config);
+    }
+
+    public Double getWeight() {
+        return weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Outcome outcome = (Outcome) o;
+
+        if (result != outcome.result) return false;
+        if (config != null ? !config.equals(outcome.config) : outcome.config != null) return false;
+        if (weight != null ? !weight.equals(outcome.weight) : outcome.weight != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result1 = result != null ? result.hashCode() : 0;
+        result1 = 31 * result1 + (config != null ? config.hashCode() : 0);
+        result1 = 31 * result1 + (weight != null ? weight.hashCode() : 0);
+        return result1;
+    }
+
+    @Override
+    public String toString() {
+        return "Outcome{" +
+                "result=" + result +
+                ", config=" + config +
+                ", weight=" + weight +
+                '}';
+    }
+}
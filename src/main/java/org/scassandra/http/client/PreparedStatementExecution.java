@@ -24,17 +24,32 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
-public final class PreparedStatementExecution {
-    private final String preparedStatementText;
-    private final String consistency;
-    private final List<Object> variables;
-    private List<CqlType> variableTypes;
+public final class PreparedStatementExecution implements TimedActivity {
+    // package-private so that the streaming adapters can read them without reflection
+    final String preparedStatementText;
+    final String consistency;
+    final List<Object> variables;
+    List<CqlType> variableTypes;
+    // not part of equals so that recorded executions match ones built without them
+    final String result;
+    private final String connectionId;
+    private final Long receivedAt;
+    private final Long receivedNanos;
+    private final Long respondedAt;
+    private final Long respondedNanos;
 
-    private PreparedStatementExecution(String preparedStatementText, String consistency, List<Object> variables, List<CqlType> variableTypes) {
+    PreparedStatementExecution(String preparedStatementText, String consistency, List<Object> variables, List<CqlType> variableTypes, String result,
+                               String connectionId, Long receivedAt, Long receivedNanos, Long respondedAt, Long respondedNanos) {
         this.preparedStatementText = preparedStatementText;
         this.consistency = consistency;
         this.variables = variables;
         this.variableTypes = variableTypes;
+        this.result = result;
+        this.connectionId = connectionId;
+        this.receivedAt = receivedAt;
+        this.receivedNanos = receivedNanos;
+        this.respondedAt = respondedAt;
+        this.respondedNanos = respondedNanos;
     }
 
     public String getPreparedStatementText() {
@@ -49,12 +64,55 @@ public final class PreparedStatementExecution {
         return Collections.unmodifiableList(variables);
     }
 
+    /**
+     * @return The outcome the execution received, for example read_request_timeout, if Scassandra recorded it
+     */
+    public String getResult() {
+        return result;
+    }
+
+    @Override
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    @Override
+    public Long getReceivedAt() {
+        return receivedAt;
+    }
+
+    @Override
+    public Long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    @Override
+    public Long getRespondedAt() {
+        return respondedAt;
+    }
+
+    @Override
+    public Long getRespondedNanos() {
+        return respondedNanos;
+    }
+
+    @Override
+    public Long getServiceTimeNanos() {
+        return receivedNanos != null && respondedNanos != null ? respondedNanos - receivedNanos : null;
+    }
+
     @Override
     public String toString() {
         return "PreparedStatementExecution{" +
                 "preparedStatementText='" + preparedStatementText + '\'' +
                 ", consistency='" + consistency + '\'' +
                 ", variables=" + variables +
+                (result != null ? ", result='" + result + '\'' : "") +
+                (connectionId != null ? ", connectionId='" + connectionId + '\'' : "") +
+                (receivedAt != null ? ", receivedAt=" + receivedAt : "") +
+                (receivedNanos != null ? ", receivedNanos=" + receivedNanos : "") +
+                (respondedAt != null ? ", respondedAt=" + respondedAt : "") +
+                (respondedNanos != null ? ", respondedNanos=" + respondedNanos : "") +
                 '}';
     }
 
@@ -115,6 +173,12 @@ public final class PreparedStatementExecution {
         private String preparedStatementText;
         private String consistency = "ONE";
         private List<Object> variables = Collections.emptyList();
+        private String result;
+        private String connectionId;
+        private Long receivedAt;
+        private Long receivedNanos;
+        private Long respondedAt;
+        private Long respondedNanos;
 
         private PreparedStatementExecutionBuilder() {
         }
@@ -162,11 +226,48 @@ public final class PreparedStatementExecution {
             return this;
         }
 
+        /**
+         * Not compared by equals, so only set it on executions that won't be matched against.
+         *
+         * @param result The outcome the execution received
+         * @return this builder
+         */
+        public PreparedStatementExecutionBuilder withResult(String result) {
+            this.result = result;
+            return this;
+        }
+
+        public PreparedStatementExecutionBuilder withConnectionId(String connectionId) {
+            this.connectionId = connectionId;
+            return this;
+        }
+
+        public PreparedStatementExecutionBuilder withReceivedAt(long receivedAt) {
+            this.receivedAt = receivedAt;
+            return this;
+        }
+
+        public PreparedStatementExecutionBuilder withReceivedNanos(long receivedNanos) {
+            this.receivedNanos = receivedNanos;
+            return this;
+        }
+
+        public PreparedStatementExecutionBuilder withRespondedAt(long respondedAt) {
+            this.respondedAt = respondedAt;
+            return this;
+        }
+
+        public PreparedStatementExecutionBuilder withRespondedNanos(long respondedNanos) {
+            this.respondedNanos = respondedNanos;
+            return this;
+        }
+
         public PreparedStatementExecution build() {
             if (preparedStatementText == null) {
                 throw new IllegalStateException("Must set PreparedStatementExecutionBuilder");
             }
-            return new PreparedStatementExecution(this.preparedStatementText, this.consistency, this.variables, this.variableTypes);
+            return new PreparedStatementExecution(this.preparedStatementText, this.consistency, this.variables, this.variableTypes, this.result,
+                    this.connectionId, this.receivedAt, this.receivedNanos, this.respondedAt, this.respondedNanos);
         }
     }
 }
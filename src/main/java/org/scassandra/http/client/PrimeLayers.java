@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import java.util.*;
+
+/**
+ * The primes of one type, query or prepared statement, split into a base layer that is primed once for
+ * a class or suite and an overlay of the statements primed since the last revert. The overlay is only
+ * tracked once there is a base layer, until then there is nothing to revert to.
+ */
+final class PrimeLayers {
+
+    private final Map<PrimingRequest.When, PrimeTemplate> base = new LinkedHashMap<PrimingRequest.When, PrimeTemplate>();
+    private final Set<PrimingRequest.When> overlay = new LinkedHashSet<PrimingRequest.When>();
+    // primes were sent before the base layer so which statements they were is unknown
+    private boolean untracked = false;
+
+    synchronized void addBase(PrimeTemplate primeTemplate) {
+        PrimingRequest.When when = primeTemplate.getPrimingRequest().getWhen();
+        base.put(when, primeTemplate);
+        overlay.remove(when);
+    }
+
+    synchronized void addOverlay(PrimingRequest.When when) {
+        if (base.isEmpty()) {
+            untracked = true;
+        } else if (when != null) {
+            overlay.add(when);
+        }
+    }
+
+    synchronized PrimeTemplate base(PrimingRequest.When when) {
+        return base.get(when);
+    }
+
+    synchronized boolean hasBase() {
+        return !base.isEmpty();
+    }
+
+    synchronized List<PrimeTemplate> baseLayer() {
+        return new ArrayList<PrimeTemplate>(base.values());
+    }
+
+    synchronized List<PrimingRequest.When> overlay() {
+        return new ArrayList<PrimingRequest.When>(overlay);
+    }
+
+    /*
+    Primes were sent or cleared without knowing which statements, the next revert sends the whole base
+    layer again
+     */
+    synchronized void addUntracked() {
+        untracked = true;
+    }
+
+    synchronized boolean hasUntracked() {
+        return untracked;
+    }
+
+    /*
+    Only called once a revert has succeeded, after a failure the overlay is reverted again next time
+     */
+    synchronized void reverted(Collection<PrimingRequest.When> whens) {
+        overlay.removeAll(whens);
+        untracked = false;
+    }
+
+    synchronized void clear() {
+        base.clear();
+        overlay.clear();
+        untracked = false;
+    }
+}
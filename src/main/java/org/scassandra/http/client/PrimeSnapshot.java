@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The file written by {@link PrimingClient#exportPrimes(Path)}. After a header of a magic number, the
+ * format version and the number of primes, each prime is a type byte followed by the length and UTF-8
+ * bytes of the JSON Scassandra is primed with, so a prime can be sent straight from the mapped file
+ * without being parsed.
+ */
+final class PrimeSnapshot {
+
+    static final int MAGIC = 0x53435052;
+    static final int VERSION = 1;
+
+    // a type byte and a length
+    private static final int PRIME_HEADER_BYTES = 5;
+
+    private static final byte QUERY = 0;
+    private static final byte PREPARED = 1;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    static final class Prime {
+        private final boolean prepared;
+        private final ByteBuffer json;
+
+        private Prime(boolean prepared, ByteBuffer json) {
+            this.prepared = prepared;
+            this.json = json;
+        }
+
+        boolean isPrepared() {
+            return prepared;
+        }
+
+        /*
+        A view of the mapped file, each call has its own position so it can be sent again
+         */
+        ByteBuffer json() {
+            return json.duplicate();
+        }
+
+        @Override
+        public String toString() {
+            return "Prime{" +
+                    "prepared=" + prepared +
+                    ", bytes=" + json.remaining() +
+                    '}';
+        }
+    }
+
+    private PrimeSnapshot() {
+    }
+
+    static void write(Path path, List<PrimingRequest> queryPrimes, List<PrimingRequest> preparedPrimes, JsonCodec jsonCodec) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(queryPrimes.size() + preparedPrimes.size());
+            ByteArrayOutputStream json = new ByteArrayOutputStream();
+            writePrimes(out, QUERY, queryPrimes, jsonCodec, json);
+            writePrimes(out, PREPARED, preparedPrimes, jsonCodec, json);
+        } finally {
+            out.close();
+        }
+    }
+
+    static List<Prime> read(Path path) throws IOException {
+        MappedByteBuffer mapped;
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            // the mapping stays valid once the channel is closed
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            channel.close();
+        }
+        try {
+            if (mapped.getInt() != MAGIC) {
+                throw new IOException(path + " isn't a prime snapshot");
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported prime snapshot version " + version + " in " + path);
+            }
+            int count = mapped.getInt();
+            // checked before anything is allocated for them, a corrupt count could be anything
+            if (count < 0 || count > mapped.remaining() / PRIME_HEADER_BYTES) {
+                throw new IOException("Prime snapshot " + path + " is corrupt, it claims " + count + " primes in "
+                        + mapped.remaining() + " bytes");
+            }
+            List<Prime> primes = new ArrayList<Prime>(count);
+            for (int i = 0; i < count; i++) {
+                byte type = mapped.get();
+                if (type != QUERY && type != PREPARED) {
+                    throw new IOException("Unknown prime type " + type + " in " + path);
+                }
+                int length = mapped.getInt();
+                if (length < 0 || length > mapped.remaining()) {
+                    throw new IOException("Prime snapshot " + path + " is truncated, prime " + i + " claims " + length
+                            + " bytes of the " + mapped.remaining() + " left");
+                }
+                ByteBuffer json = mapped.slice();
+                json.limit(length);
+                mapped.position(mapped.position() + length);
+                primes.add(new Prime(type == PREPARED, json));
+            }
+            return Collections.unmodifiableList(primes);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Prime snapshot " + path + " is truncated", e);
+        }
+    }
+
+    private static void writePrimes(DataOutputStream out, byte type, List<PrimingRequest> primes, JsonCodec jsonCodec, ByteArrayOutputStream json) throws IOException {
+        for (PrimingRequest prime : primes) {
+            json.reset();
+            Writer writer = new OutputStreamWriter(json, UTF_8);
+            jsonCodec.writePrimingRequest(prime, writer);
+            writer.flush();
+            out.writeByte(type);
+            out.writeInt(json.size());
+            json.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A PrimingRequest frozen into the JSON Scassandra is sent, encoded once so that a prime shared by many
+ * tests isn't serialised every time it is primed. The when and then are encoded separately so a variant
+ * with a different query or consistency only re-encodes the when, the rows are never encoded again.
+ * <p>
+ * Templates are immutable and can be shared between threads and PrimingClients.
+ */
+public final class PrimeTemplate {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final PrimingRequest primingRequest;
+    private final JsonCodec jsonCodec;
+    private final byte[] then;
+    private final byte[] wire;
+
+    private PrimeTemplate(PrimingRequest primingRequest, JsonCodec jsonCodec, byte[] when, byte[] then) {
+        this.primingRequest = primingRequest;
+        this.jsonCodec = jsonCodec;
+        this.then = then;
+        this.wire = new byte[when.length + then.length + 3];
+        this.wire[0] = '{';
+        System.arraycopy(when, 0, wire, 1, when.length);
+        this.wire[when.length + 1] = ',';
+        System.arraycopy(then, 0, wire, when.length + 2, then.length);
+        this.wire[wire.length - 1] = '}';
+    }
+
+    public static PrimeTemplate of(PrimingRequest primingRequest) {
+        return of(primingRequest, new GsonJsonCodec());
+    }
+
+    /**
+     * @param primingRequest The prime to freeze
+     * @param jsonCodec Codec used to encode the prime and any variants of it
+     * @return the template
+     */
+    public static PrimeTemplate of(PrimingRequest primingRequest, JsonCodec jsonCodec) {
+        PrimingRequest.Then then = primingRequest.getThen();
+        if (primingRequest.getWhen() == null || then == null) {
+            throw new IllegalArgumentException("Only a prime with a when and a then can be frozen into a template");
+        }
+        return new PrimeTemplate(primingRequest, jsonCodec,
+                encodeMember(new PrimingRequest(primingRequest.primeType, primingRequest.getWhen(), null), jsonCodec),
+                encodeMember(new PrimingRequest(primingRequest.primeType, null, then), jsonCodec));
+    }
+
+    /**
+     * @param query The query the variant is for, replacing the query or query pattern of this template
+     * @return a template with the same then
+     */
+    public PrimeTemplate withQuery(String query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Must set either query or queryPattern for PrimingRequest");
+        }
+        return withWhen(new PrimingRequest.When(query, null, primingRequest.getWhen().consistency));
+    }
+
+    /**
+     * @param queryPattern The pattern the variant is for, replacing the query or query pattern of this template
+     * @return a template with the same then
+     */
+    public PrimeTemplate withQueryPattern(String queryPattern) {
+        if (queryPattern == null) {
+            throw new IllegalArgumentException("Must set either query or queryPattern for PrimingRequest");
+        }
+        return withWhen(new PrimingRequest.When(null, queryPattern, primingRequest.getWhen().consistency));
+    }
+
+    /**
+     * @param consistencies The consistencies the variant is for, none for all consistencies
+     * @return a template with the same then
+     */
+    public PrimeTemplate withConsistency(PrimingRequest.Consistency... consistencies) {
+        List<PrimingRequest.Consistency> consistency = consistencies.length == 0 ? null : Arrays.asList(consistencies);
+        PrimingRequest.When when = primingRequest.getWhen();
+        return withWhen(new PrimingRequest.When(when.query, when.queryPattern, consistency));
+    }
+
+    public PrimingRequest getPrimingRequest() {
+        return primingRequest;
+    }
+
+    /*
+    The entity shares the template's bytes, they are never modified
+     */
+    HttpEntity entity() {
+        return new ByteArrayEntity(wire, ContentType.APPLICATION_JSON);
+    }
+
+    byte[] bytes() {
+        return wire;
+    }
+
+    @Override
+    public String toString() {
+        return "PrimeTemplate{" +
+                "when=" + primingRequest.getWhen() +
+                ", bytes=" + wire.length +
+                '}';
+    }
+
+    private PrimeTemplate withWhen(PrimingRequest.When when) {
+        PrimingRequest variant = new PrimingRequest(primingRequest.primeType, when, primingRequest.getThen());
+        return new PrimeTemplate(variant, jsonCodec,
+                encodeMember(new PrimingRequest(primingRequest.primeType, when, null), jsonCodec), then);
+    }
+
+    /*
+    A prime with only a when or a then is encoded as an object with a single member, the braces are
+    dropped so the when and then can be joined into one object
+     */
+    private static byte[] encodeMember(PrimingRequest primingRequest, JsonCodec jsonCodec) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            Writer writer = new OutputStreamWriter(bytes, UTF_8);
+            jsonCodec.writePrimingRequest(primingRequest, writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to encode " + primingRequest, e);
+        }
+        byte[] object = bytes.toByteArray();
+        int start = 0;
+        int end = object.length - 1;
+        while (start < object.length && object[start] != '{') {
+            start++;
+        }
+        while (end > start && object[end] != '}') {
+            end--;
+        }
+        if (end <= start) {
+            throw new IllegalArgumentException("Prime wasn't encoded as a JSON object: " + new String(object, UTF_8));
+        }
+        return Arrays.copyOfRange(object, start + 1, end);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.MapMaker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The primes of one type, query or prepared statement, that Scassandra holds because this client sent
+ * them. Only accurate while nothing else primes or clears the same server.
+ */
+final class PrimedRequests {
+
+    // keyed by query and query pattern, the last prime sent for a statement replaces any before it
+    private final ConcurrentMap<List<String>, PrimingRequest> held = new ConcurrentHashMap<List<String>, PrimingRequest>();
+
+    // keyed by identity and weakly so each request's fingerprint is computed once and doesn't outlive it
+    private final ConcurrentMap<PrimingRequest, Integer> fingerprints = new MapMaker().weakKeys().makeMap();
+
+    /*
+    Compares fingerprints before falling back to a full comparison, so only a prime that is almost
+    certainly identical has its rows compared
+     */
+    boolean isHeld(PrimingRequest primingRequest) {
+        if (primingRequest.getWhen() == null) {
+            return false;
+        }
+        PrimingRequest existing = held.get(statement(primingRequest.getWhen()));
+        return existing != null
+                && (existing == primingRequest || (fingerprint(existing) == fingerprint(primingRequest) && existing.equals(primingRequest)));
+    }
+
+    /*
+    The hash of the When and the Then, PrimingRequests are immutable so it only needs computing once
+     */
+    int fingerprint(PrimingRequest primingRequest) {
+        Integer fingerprint = fingerprints.get(primingRequest);
+        if (fingerprint == null) {
+            fingerprint = primingRequest.hashCode();
+            fingerprints.put(primingRequest, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    /*
+    Only the last prime sent for a statement is held, a prime for the same query with different
+    consistencies may have replaced the ones before it
+     */
+    void primed(PrimingRequest primingRequest) {
+        if (primingRequest.getWhen() != null) {
+            held.put(statement(primingRequest.getWhen()), primingRequest);
+        }
+    }
+
+    void forget(PrimingRequest primingRequest) {
+        if (primingRequest.getWhen() != null) {
+            held.remove(statement(primingRequest.getWhen()));
+        }
+    }
+
+    void clear() {
+        held.clear();
+    }
+
+    static List<String> statement(PrimingRequest.When when) {
+        return Arrays.asList(when.query, when.queryPattern);
+    }
+}
@@ -15,8 +15,11 @@
  */
 package org.scassandra.http.client;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.GzipCompressingEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -26,27 +29,31 @@ import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.util.EntityUtils;
-import org.scassandra.cql.CqlType;
-import org.scassandra.http.client.types.GsonCqlTypeDeserialiser;
-import org.scassandra.http.client.types.GsonCqlTypeSerialiser;
-import org.scassandra.http.client.types.GsonInetAddressSerialiser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.net.InetAddress;
-import java.util.Arrays;
-import java.util.List;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PrimingClient {
 
     public static final String DELETING_OF_PRIMES_FAILED = "Deleting of primes failed";
     public static final String PRIMING_FAILED = "Priming failed";
+    public static final String EXPORTING_PRIMES_FAILED = "Exporting of primes failed";
+    public static final String IMPORTING_PRIMES_FAILED = "Importing of primes failed";
 
     public static class PrimingClientBuilder {
 
         private String host = "localhost";
         private int port = 8043;
+        private JsonCodec jsonCodec = new GsonJsonCodec();
+        private boolean deduplicatePrimes = false;
+        private long compressionThreshold = -1;
+        private boolean extendedPrimes = false;
 
         private PrimingClientBuilder() {
         }
@@ -61,29 +68,96 @@ public class PrimingClient {
             return this;
         }
 
+        /**
+         * Defaults to a {@link GsonJsonCodec}.
+         * @param jsonCodec Codec used for the requests to and responses from Scassandra
+         * @return this builder
+         */
+        public PrimingClientBuilder withJsonCodec(JsonCodec jsonCodec) {
+            this.jsonCodec = jsonCodec;
+            return this;
+        }
+
+        /**
+         * Skip sending primes that are identical to a prime this client has already sent, for example shared
+         * fixtures primed before every test. Only use this if the PrimingClient is the only thing priming and
+         * clearing primes on the server and the PrimingRequests aren't modified after they are built.
+         * Defaults to false.
+         *
+         * @param deduplicatePrimes Whether to skip primes Scassandra already holds
+         * @return this builder
+         */
+        public PrimingClientBuilder withPrimeDeduplication(boolean deduplicatePrimes) {
+            this.deduplicatePrimes = deduplicatePrimes;
+            return this;
+        }
+
+        /**
+         * Gzip the primes sent to Scassandra, compressing them as they are written. Only use this if the
+         * server decodes gzip request bodies. Off by default.
+         *
+         * @param minimumBytes Primes smaller than this are sent uncompressed, primes whose size isn't known
+         *                     up front, such as generated rows, are always compressed
+         * @return this builder
+         */
+        public PrimingClientBuilder withRequestCompression(long minimumBytes) {
+            if (minimumBytes < 0) {
+                throw new IllegalArgumentException("Minimum size to compress can't be negative: " + minimumBytes);
+            }
+            this.compressionThreshold = minimumBytes;
+            return this;
+        }
+
+        /**
+         * Send primes with a delay distribution, a result mix or sequence, the overloaded or is_bootstrapping results, or a
+         * {@link RateLimitConfig} or {@link ConcurrencyLimitConfig}. The Scassandra server bundled with this
+         * client doesn't support them, so only use this with a server that does. Off by default, when priming with them fails
+         * with an IllegalArgumentException before anything is sent.
+         *
+         * @param extendedPrimes Whether the server supports the extended results and limits
+         * @return this builder
+         */
+        public PrimingClientBuilder withExtendedPrimes(boolean extendedPrimes) {
+            this.extendedPrimes = extendedPrimes;
+            return this;
+        }
+
         public PrimingClient build() {
-            return new PrimingClient(this.host, this.port);
+            return new PrimingClient(this.host, this.port, this.jsonCodec, this.deduplicatePrimes, this.compressionThreshold, this.extendedPrimes);
         }
     }
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PrimingClient.class);
 
+    // results and config the bundled server doesn't support
+    private static final Set<PrimingRequest.Result> EXTENDED_RESULTS = EnumSet.of(PrimingRequest.Result.overloaded, PrimingRequest.Result.is_bootstrapping);
+    private static final Set<String> EXTENDED_CONFIG = new HashSet<String>(Arrays.asList(RateLimitConfig.REQUESTS_PER_SECOND,
+            RateLimitConfig.BURST, RateLimitConfig.MAX_QUEUE_DELAY, ConcurrencyLimitConfig.MAX_CONCURRENT_REQUESTS,
+            ConcurrencyLimitConfig.MAX_QUEUE_DELAY));
+
     public static PrimingClientBuilder builder() {
         return new PrimingClientBuilder();
     }
 
-    private Gson gson = new GsonBuilder()
-            .registerTypeAdapter(CqlType.class, new GsonCqlTypeSerialiser())
-            .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
-            .registerTypeAdapter(InetAddress.class, new GsonInetAddressSerialiser())
-            .enableComplexMapKeySerialization()
-            .create();
-
+    private final JsonCodec jsonCodec;
+    private final boolean deduplicatePrimes;
+    private final long compressionThreshold;
+    private final boolean extendedPrimes;
+    private final PrimedRequests primedQueries = new PrimedRequests();
+    private final PrimedRequests primedPreparedStatements = new PrimedRequests();
+    private final PrimeLayers queryLayers = new PrimeLayers();
+    private final PrimeLayers preparedLayers = new PrimeLayers();
+    private final AtomicLong primeGeneration = new AtomicLong();
+    private final Object replaceLock = new Object();
     private CloseableHttpClient httpClient = HttpClients.createDefault();
     private String primeQueryUrl;
     private String primePreparedUrl;
 
-    private PrimingClient(String host, int port) {
+    private PrimingClient(String host, int port, JsonCodec jsonCodec, boolean deduplicatePrimes, long compressionThreshold, boolean extendedPrimes) {
+        this.jsonCodec = jsonCodec;
+        this.deduplicatePrimes = deduplicatePrimes;
+        this.compressionThreshold = compressionThreshold;
+        this.extendedPrimes = extendedPrimes;
 
         this.primeQueryUrl = "http://" + host + ":" + port + "/prime-query-single";
         this.primePreparedUrl = "http://" + host + ":" + port + "/prime-prepared-single";
@@ -97,6 +171,60 @@ public class PrimingClient {
         }
     }
 
+    /**
+     * Sends the template's pre-encoded bytes, the prime isn't serialised again.
+     *
+     * @param primeTemplate The Prime
+     */
+    public void prime(PrimeTemplate primeTemplate) throws PrimeFailedException {
+        PrimingRequest prime = primeTemplate.getPrimingRequest();
+        String url = urlFor(prime);
+        layersFor(url).addOverlay(prime.getWhen());
+        send(prime, url, primeTemplate);
+    }
+
+    /**
+     * Primes a statement as part of the base layer, the primes shared by a class or suite of tests. Primes
+     * sent with prime() after it are an overlay that {@link #revertToBase()} removes, so the base layer
+     * is only sent once.
+     *
+     * @param primeRequest The Prime
+     */
+    public void primeBase(PrimingRequest primeRequest) throws PrimeFailedException {
+        primeBase(PrimeTemplate.of(primeRequest, jsonCodec));
+    }
+
+    /**
+     * @param primeTemplate The Prime
+     * @see #primeBase(PrimingRequest)
+     */
+    public void primeBase(PrimeTemplate primeTemplate) throws PrimeFailedException {
+        PrimingRequest prime = primeTemplate.getPrimingRequest();
+        String url = urlFor(prime);
+        send(prime, url, primeTemplate);
+        layersFor(url).addBase(primeTemplate);
+    }
+
+    /**
+     * Puts the primes back to the base layer. Each statement primed since the base layer, or the last
+     * revert, is primed again with its base prime. Scassandra can't remove a single prime, so if a
+     * statement without a base prime has been primed the primes of that type are cleared and the base
+     * layer is sent again.
+     * <p>
+     * With no base layer this is the same as {@link #clearAllPrimes()}.
+     */
+    public void revertToBase() throws PrimeFailedException {
+        revertToBase(primeQueryUrl);
+        revertToBase(primePreparedUrl);
+    }
+
+    /**
+     * @return whether any prime has been sent with primeBase since the primes were last cleared
+     */
+    public boolean hasBaseLayer() {
+        return queryLayers.hasBase() || preparedLayers.hasBase();
+    }
+
     /**
      * @param primeRequest The Prime
      * @deprecated Use prime() instead.
@@ -129,36 +257,180 @@ public class PrimingClient {
         return httpGetPrimingRequests(primeQueryUrl);
     }
 
+    /**
+     * Replaces every query and prepared statement prime with a new set. When every statement primed now is
+     * in the new set with the same consistencies the new primes are sent over the old ones, so traffic
+     * sees a statement's previous prime or its new one and never an unprimed statement.
+     * <p>
+     * This isn't an atomic replacement. Scassandra can't remove a single prime or swap a set of primes at
+     * once, so if a statement is dropped from the set or primed with other consistencies the primes of
+     * that type are cleared and the new set is sent a prime at a time. Executions in between see those
+     * statements unprimed. Avoid that by keeping every statement and its consistencies in the new set.
+     * <p>
+     * If sending the new set fails the previous primes are cleared and sent again as Scassandra listed
+     * them, then the PrimeFailedException is thrown. Executions during that see the same gap.
+     *
+     * @param primes The new primes, built with queryBuilder() or preparedStatementBuilder()
+     * @return the generation of primes now primed, one for the first replacement by this client. The
+     * generation is counted by this client, Scassandra knows nothing of it, and only a replacement that
+     * succeeds increments it.
+     */
+    public long replaceAllPrimes(Collection<PrimingRequest> primes) throws PrimeFailedException {
+        List<PrimingRequest> queries = new ArrayList<PrimingRequest>();
+        List<PrimingRequest> prepared = new ArrayList<PrimingRequest>();
+        for (PrimingRequest prime : primes) {
+            if (prime.primeType == null) {
+                throw new IllegalArgumentException("Prime has no type, build it with queryBuilder() or preparedStatementBuilder(): " + prime);
+            }
+            if (prime.primeType == PrimingRequest.PrimingRequestBuilder.PrimeType.QUERY) {
+                queries.add(prime);
+            } else {
+                prepared.add(prime);
+            }
+        }
+        synchronized (replaceLock) {
+            String previousQueries = httpGetPrimesJson(primeQueryUrl);
+            String previousPrepared = httpGetPrimesJson(primePreparedUrl);
+            List<PrimingRequest> previousQueryPrimes = readPrimingRequests(previousQueries);
+            List<PrimingRequest> previousPreparedPrimes = readPrimingRequests(previousPrepared);
+            try {
+                replace(previousQueryPrimes, queries, primeQueryUrl);
+                replace(previousPreparedPrimes, prepared, primePreparedUrl);
+            } catch (PrimeFailedException e) {
+                LOGGER.warn("Replacing all primes failed, putting the previous primes back", e);
+                try {
+                    restore(previousQueries, primeQueryUrl);
+                    restore(previousPrepared, primePreparedUrl);
+                } catch (PrimeFailedException restoreFailure) {
+                    LOGGER.warn("Putting the previous primes back failed, the primes Scassandra holds are unknown", restoreFailure);
+                    e.addSuppressed(restoreFailure);
+                }
+                throw e;
+            }
+            long generation = primeGeneration.incrementAndGet();
+            LOGGER.info("Replaced all primes with {} primes, generation {}", primes.size(), generation);
+            return generation;
+        }
+    }
+
+    /**
+     * @return the generation of primes last primed by {@link #replaceAllPrimes(Collection)}, zero if it
+     * hasn't been called
+     */
+    public long primeGeneration() {
+        return primeGeneration.get();
+    }
+
+    /**
+     * Writes the query and prepared statement primes Scassandra holds to a file that
+     * {@link #importPrimes(Path)} can load, for example so a catalogue of primes built once can be loaded
+     * quickly by later runs.
+     *
+     * @param path File to write, replaced if it exists
+     */
+    public void exportPrimes(Path path) throws PrimeFailedException {
+        List<PrimingRequest> queryPrimes = retrieveQueryPrimes();
+        List<PrimingRequest> preparedPrimes = retrievePreparedPrimes();
+        try {
+            PrimeSnapshot.write(path, queryPrimes, preparedPrimes, jsonCodec);
+        } catch (IOException e) {
+            LOGGER.info(EXPORTING_PRIMES_FAILED, e);
+            throw new PrimeFailedException(EXPORTING_PRIMES_FAILED, e);
+        }
+        LOGGER.info("Exported {} query and {} prepared statement primes to {}", new Object[]{queryPrimes.size(), preparedPrimes.size(), path});
+    }
+
+    /**
+     * Replaces all primes with the primes in a file written by {@link #exportPrimes(Path)}. The file is
+     * memory-mapped and each prime is sent as it was written, without being parsed or serialised.
+     * Imported primes aren't part of the base layer, prime them with primeBase to keep them between tests.
+     *
+     * @param path File to read
+     */
+    public void importPrimes(Path path) throws PrimeFailedException {
+        List<PrimeSnapshot.Prime> primes;
+        try {
+            primes = PrimeSnapshot.read(path);
+        } catch (IOException e) {
+            LOGGER.info(IMPORTING_PRIMES_FAILED, e);
+            throw new PrimeFailedException(IMPORTING_PRIMES_FAILED + ": " + e.getMessage(), e);
+        }
+        clearAllPrimes();
+        primeEncoded(primes);
+        LOGGER.info("Imported {} primes from {}", primes.size(), path);
+    }
+
     public void clearAllPrimes() {
         clearQueryPrimes();
         clearPreparedPrimes();
     }
 
     public void clearQueryPrimes() {
+        queryLayers.clear();
+        primedQueries.clear();
         httpDelete(primeQueryUrl);
     }
 
     public void clearPreparedPrimes() {
+        preparedLayers.clear();
+        primedPreparedStatements.clear();
         httpDelete(primePreparedUrl);
     }
 
     private List<PrimingRequest> httpGetPrimingRequests(String url) {
         HttpGet get = new HttpGet(url);
+        CloseableHttpResponse httpResponse = null;
         try {
-            CloseableHttpResponse httpResponse = httpClient.execute(get);
+            httpResponse = httpClient.execute(get);
             int statusCode = httpResponse.getStatusLine().getStatusCode();
-            String responseAsString = EntityUtils.toString(httpResponse.getEntity());
             if (statusCode != 200) {
+                String responseAsString = EntityUtils.toString(httpResponse.getEntity());
                 String errorMessage = String.format("Retrieving of primes failed with http status %s body %s", statusCode, responseAsString);
                 LOGGER.info(errorMessage);
                 throw new PrimeFailedException(errorMessage);
             }
-            LOGGER.debug("Received response from scassandra {}", responseAsString);
-            PrimingRequest[] primes = (PrimingRequest[]) gson.fromJson(responseAsString, (Class) PrimingRequest[].class);
-            return Arrays.asList(primes);
+            ResponseBodyReader body = ResponseBodyReader.of(httpResponse.getEntity(), LOGGER.isDebugEnabled());
+            List<PrimingRequest> primes = jsonCodec.readPrimingRequests(body);
+            LOGGER.debug("Received response from scassandra {}", body.loggedPrefix());
+            return primes;
         } catch (IOException e) {
             LOGGER.info("Retrieving failed", e);
             throw new PrimeFailedException("Retrieving of primes failed.", e);
+        } finally {
+            if (httpResponse != null) {
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+            }
+        }
+    }
+
+    private String httpGetPrimesJson(String url) {
+        HttpGet get = new HttpGet(url);
+        CloseableHttpResponse httpResponse = null;
+        try {
+            httpResponse = httpClient.execute(get);
+            int statusCode = httpResponse.getStatusLine().getStatusCode();
+            String body = EntityUtils.toString(httpResponse.getEntity(), "UTF-8");
+            if (statusCode != 200) {
+                String errorMessage = String.format("Retrieving of primes failed with http status %s body %s", statusCode, body);
+                LOGGER.info(errorMessage);
+                throw new PrimeFailedException(errorMessage);
+            }
+            return body;
+        } catch (IOException e) {
+            LOGGER.info("Retrieving failed", e);
+            throw new PrimeFailedException("Retrieving of primes failed.", e);
+        } finally {
+            if (httpResponse != null) {
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+            }
+        }
+    }
+
+    private List<PrimingRequest> readPrimingRequests(String json) {
+        try {
+            return jsonCodec.readPrimingRequests(new StringReader(json));
+        } catch (IOException e) {
+            throw new PrimeFailedException("Retrieving of primes failed.", e);
         }
     }
 
@@ -185,28 +457,211 @@ public class PrimingClient {
         }
     }
 
+    private void revertToBase(String url) {
+        PrimeLayers layers = layersFor(url);
+        if (!layers.hasBase()) {
+            layers.clear();
+            primedFor(url).clear();
+            httpDelete(url);
+            return;
+        }
+        List<PrimingRequest.When> overlay = layers.overlay();
+        if (layers.hasUntracked() || !allHaveBase(overlay, layers)) {
+            LOGGER.debug("Sending the base layer to url {} again as statements without a base prime were primed", url);
+            primedFor(url).clear();
+            httpDelete(url);
+            for (PrimeTemplate base : layers.baseLayer()) {
+                send(base.getPrimingRequest(), url, base);
+            }
+        } else {
+            for (PrimingRequest.When when : overlay) {
+                PrimeTemplate base = layers.base(when);
+                send(base.getPrimingRequest(), url, base);
+            }
+        }
+        layers.reverted(overlay);
+    }
+
+    private static boolean allHaveBase(List<PrimingRequest.When> overlay, PrimeLayers layers) {
+        for (PrimingRequest.When when : overlay) {
+            if (layers.base(when) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void replace(List<PrimingRequest> previous, List<PrimingRequest> primes, String url) {
+        Set<List<Object>> replacing = new HashSet<List<Object>>();
+        for (PrimingRequest prime : primes) {
+            replacing.add(statementAndConsistencies(prime.getWhen()));
+        }
+        for (PrimingRequest prime : previous) {
+            if (prime.getWhen() != null && !replacing.contains(statementAndConsistencies(prime.getWhen()))) {
+                LOGGER.debug("Clearing the primes at url {} as {} isn't primed the same way in the new set", url, prime.getWhen());
+                clear(url);
+                break;
+            }
+        }
+        for (PrimingRequest prime : primes) {
+            prime(prime, url);
+        }
+    }
+
+    /*
+    Sends each prime back as Scassandra listed it rather than as the codec reads it, which would turn the
+    integers in rows into doubles
+     */
+    private void restore(String primesJson, String url) {
+        // already read by the codec so known to be an array
+        JsonArray primes = new JsonParser().parse(primesJson).getAsJsonArray();
+        clear(url);
+        try {
+            for (JsonElement prime : primes) {
+                post(url, new StringEntity(prime.toString(), ContentType.APPLICATION_JSON));
+            }
+        } catch (IOException e) {
+            LOGGER.warn(PRIMING_FAILED, e);
+            throw new PrimeFailedException(PRIMING_FAILED, e);
+        }
+    }
+
+    /*
+    Clears the server's primes of one type while keeping the base layer, which revertToBase sends again
+     */
+    private void clear(String url) {
+        primedFor(url).clear();
+        layersFor(url).addUntracked();
+        httpDelete(url);
+    }
+
+    /*
+    Scassandra may list the consistencies of a prime that was sent without any, so no consistencies
+    are the same as all of them
+     */
+    private static List<Object> statementAndConsistencies(PrimingRequest.When when) {
+        Set<PrimingRequest.Consistency> consistencies = when.consistency == null || when.consistency.isEmpty()
+                ? EnumSet.allOf(PrimingRequest.Consistency.class)
+                : EnumSet.copyOf(when.consistency);
+        return Arrays.<Object>asList(when.query, when.queryPattern, consistencies);
+    }
+
+    /*
+    The bulk path, primes that are already encoded are sent one after another over the same connection
+    without being logged individually
+     */
+    private void primeEncoded(List<PrimeSnapshot.Prime> primes) {
+        try {
+            for (PrimeSnapshot.Prime prime : primes) {
+                post(prime.isPrepared() ? primePreparedUrl : primeQueryUrl, new ByteBufferEntity(prime.json()));
+            }
+        } catch (IOException e) {
+            LOGGER.warn(PRIMING_FAILED, e);
+            throw new PrimeFailedException(PRIMING_FAILED, e);
+        }
+    }
+
+    private HttpEntity compress(HttpEntity entity) {
+        if (compressionThreshold < 0) {
+            return entity;
+        }
+        long length = entity.getContentLength();
+        return length >= 0 && length < compressionThreshold ? entity : new GzipCompressingEntity(entity);
+    }
+
+    private String urlFor(PrimingRequest primeRequest) {
+        return primeRequest.primeType == PrimingRequest.PrimingRequestBuilder.PrimeType.QUERY ? primeQueryUrl : primePreparedUrl;
+    }
+
+    private PrimeLayers layersFor(String url) {
+        return url.equals(primeQueryUrl) ? queryLayers : preparedLayers;
+    }
+
+    private PrimedRequests primedFor(String url) {
+        return url.equals(primeQueryUrl) ? primedQueries : primedPreparedStatements;
+    }
+
     private void prime(PrimingRequest primeRequest, String url) {
+        layersFor(url).addOverlay(primeRequest.getWhen());
+        send(primeRequest, url, null);
+    }
+
+    private void send(PrimingRequest primeRequest, String url, PrimeTemplate primeTemplate) {
+        if (!extendedPrimes) {
+            checkSupported(primeRequest);
+        }
+        PrimedRequests primed = primedFor(url);
+        if (deduplicatePrimes) {
+            if (primed.isHeld(primeRequest)) {
+                LOGGER.debug("Not sending {} to url {} as Scassandra already has it", primeRequest.getWhen(), url);
+                return;
+            }
+            // forgotten until it succeeds as a failure part way through leaves the server's primes unknown
+            primed.forget(primeRequest);
+        }
+        try {
+            post(url, primeTemplate == null ? entityFor(primeRequest, url) : entityFor(primeTemplate, url));
+        } catch (IOException e) {
+            LOGGER.warn(PRIMING_FAILED, e);
+            throw new PrimeFailedException(PRIMING_FAILED, e);
+        }
+        if (deduplicatePrimes) {
+            primed.primed(primeRequest);
+        }
+    }
+
+    private static void checkSupported(PrimingRequest primeRequest) {
+        PrimingRequest.Then then = primeRequest.getThen();
+        if (then == null) {
+            return;
+        }
+        // the bundled server ignores fields it doesn't know, so the prime would quietly behave as if they weren't set
+        boolean extended = then.delayDistribution != null || then.resultMix != null || then.resultSequence != null
+                || EXTENDED_RESULTS.contains(then.result)
+                || (then.config != null && !Collections.disjoint(then.config.keySet(), EXTENDED_CONFIG));
+        if (extended) {
+            throw new IllegalArgumentException("The Scassandra server bundled with this client doesn't support delay distributions, " +
+                    "result mixes and sequences, the overloaded and is_bootstrapping results or rate and concurrency limits, " +
+                    "build the PrimingClient withExtendedPrimes(true) to send them to a server that does: " + primeRequest.getWhen());
+        }
+    }
+
+    private void post(String url, HttpEntity entity) throws IOException {
         HttpPost httpPost = new HttpPost(url);
-        String jsonAsString = gson.toJson(primeRequest);
-        LOGGER.info("Sending {} to url {}", jsonAsString, url);
-        httpPost.setEntity(new StringEntity(jsonAsString, ContentType.APPLICATION_JSON));
-        CloseableHttpResponse response = null;
+        httpPost.setEntity(compress(entity));
+        CloseableHttpResponse response = httpClient.execute(httpPost);
         try {
-            response = httpClient.execute(httpPost);
             if (response.getStatusLine().getStatusCode() != 200) {
                 String body = EntityUtils.toString(response.getEntity());
                 String errorMessage = String.format("Priming came back with non-200 response code: %s and body: %s", response.getStatusLine(), body);
                 LOGGER.warn(errorMessage);
                 throw new PrimeFailedException(errorMessage);
             }
-        } catch (IOException e) {
-            LOGGER.warn(PRIMING_FAILED, e);
-            throw new PrimeFailedException(PRIMING_FAILED, e);
         } finally {
-            if (response != null) {
-                EntityUtils.consumeQuietly(response.getEntity());
-            }
+            EntityUtils.consumeQuietly(response.getEntity());
+        }
+    }
+
+    /*
+    Primes with streamed rows are written straight to the connection, they can be far too big to
+    hold as a String or to log
+     */
+    private HttpEntity entityFor(PrimingRequest primeRequest, String url) throws IOException {
+        PrimingRequest.Then then = primeRequest.getThen();
+        if (then != null && then.rows instanceof StreamedRows) {
+            LOGGER.info("Sending {} with {} to url {}", new Object[]{primeRequest.getWhen(), then.rows, url});
+            return new PrimingRequestEntity(primeRequest, jsonCodec);
         }
+        StringWriter json = new StringWriter();
+        jsonCodec.writePrimingRequest(primeRequest, json);
+        String jsonAsString = json.toString();
+        LOGGER.info("Sending {} to url {}", jsonAsString, url);
+        return new StringEntity(jsonAsString, ContentType.APPLICATION_JSON);
+    }
+
+    private HttpEntity entityFor(PrimeTemplate primeTemplate, String url) {
+        LOGGER.info("Sending {} to url {}", primeTemplate, url);
+        return primeTemplate.entity();
     }
 
 }
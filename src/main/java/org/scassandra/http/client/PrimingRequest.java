@@ -44,7 +44,13 @@ public final class PrimingRequest {
         private List<Map<String, ?>> rows;
         private Result result = Result.success;
         private Long fixedDelay;
+        private DelayDistribution delayDistribution;
+        private List<Outcome> resultMix;
+        private List<Outcome> resultSequence;
         private Map<String, Object> config = new HashMap<String, Object>();
+        // column types and config shared with a built PrimingRequest, copied before they're changed
+        private Map<String, CqlType> sharedColumnTypes;
+        private boolean configShared;
 
         public PrimingRequestBuilder withQuery(String query) {
             this.query = query;
@@ -61,14 +67,56 @@ public final class PrimingRequest {
             return this;
         }
 
+        /**
+         * Delays each response by an amount drawn from a distribution. The Scassandra server bundled with
+         * this client only delays responses by a fixedDelay, so the distribution is only sent by a client
+         * built with {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+         *
+         * @param delayDistribution Distribution of the delays, can't be used with a fixed delay
+         * @return this builder
+         */
+        public PrimingRequestBuilder withDelayDistribution(DelayDistribution delayDistribution) {
+            this.delayDistribution = delayDistribution;
+            return this;
+        }
+
         public PrimingRequestBuilder withRows(List<Map<String, ?>> rows) {
-            this.rows = rows;
+            this.rows = SharedRows.of(rows);
             return this;
         }
 
         @SafeVarargs
         public final PrimingRequestBuilder withRows(Map<String, ? extends Object>... rows) {
-            this.rows = Arrays.asList(rows);
+            this.rows = SharedRows.of(Arrays.asList(rows));
+            return this;
+        }
+
+        /**
+         * Uses the columns of the rows as the column types unless they have been set.
+         *
+         * @param rows Rows stored a column at a time
+         * @return this builder
+         */
+        public PrimingRequestBuilder withRows(ColumnarRows rows) {
+            this.rows = rows;
+            if (this.columnTypesMeta == null && this.sharedColumnTypes == null) {
+                this.columnTypesMeta = rows.getColumns();
+            }
+            return this;
+        }
+
+        /**
+         * The rows are generated while the prime is sent. Uses the generator's columns as the column types
+         * unless they have been set.
+         *
+         * @param rows Generator of the rows
+         * @return this builder
+         */
+        public PrimingRequestBuilder withRows(SyntheticRows rows) {
+            this.rows = rows.rows();
+            if (this.columnTypesMeta == null && this.sharedColumnTypes == null) {
+                this.columnTypesMeta = rows.getColumns();
+            }
             return this;
         }
 
@@ -77,6 +125,32 @@ public final class PrimingRequest {
             return this;
         }
 
+        /**
+         * Each execution responds with one of the outcomes, chosen at random by their weights. Overrides
+         * the result of the prime. Only sent by a client built with
+         * {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+         *
+         * @param outcomes Outcomes with weights, for example success weighted 98 and read_request_timeout 2
+         * @return this builder
+         */
+        public PrimingRequestBuilder withResultMix(Outcome... outcomes) {
+            this.resultMix = Arrays.asList(outcomes);
+            return this;
+        }
+
+        /**
+         * The first executions respond with the outcomes in order, for example three timeouts, after
+         * which executions respond with the result of the prime. Only sent by a client built with
+         * {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+         *
+         * @param outcomes Outcomes of the first executions
+         * @return this builder
+         */
+        public PrimingRequestBuilder withResultSequence(Outcome... outcomes) {
+            this.resultSequence = Arrays.asList(outcomes);
+            return this;
+        }
+
         public PrimingRequestBuilder withConsistency(Consistency... consistencies) {
             consistency = consistencies;
             return this;
@@ -84,10 +158,15 @@ public final class PrimingRequest {
 
         public PrimingRequestBuilder withColumnTypes(ColumnMetadata... columnMetadata) {
             this.columnTypesMeta = Arrays.asList(columnMetadata);
+            this.sharedColumnTypes = null;
             return this;
         }
 
         public PrimingRequestBuilder withConfig(Config readTimeoutConfig) {
+            if (configShared) {
+                this.config = new HashMap<String, Object>(this.config);
+                this.configShared = false;
+            }
             this.config.putAll(readTimeoutConfig.getProperties());
             return this;
         }
@@ -102,6 +181,7 @@ public final class PrimingRequest {
                 columnMetadata.add(ColumnMetadata.column(entry.getKey(), entry.getValue().getType()));
             }
             this.columnTypesMeta = columnMetadata;
+            this.sharedColumnTypes = null;
             return this;
         }
 
@@ -137,17 +217,78 @@ public final class PrimingRequest {
                 throw new IllegalStateException("Must set either query or queryPattern for PrimingRequest");
             }
 
-            List<Consistency> consistencies = this.consistency == null ? null : Arrays.asList(this.consistency);
+            if (fixedDelay != null && delayDistribution != null) {
+                throw new IllegalStateException("Can't specify fixedDelay and a delay distribution");
+            }
+
+            if (resultMix != null && resultSequence != null) {
+                throw new IllegalStateException("Can't specify a result mix and a result sequence");
+            }
+
+            if (resultMix != null) {
+                if (resultMix.isEmpty()) {
+                    throw new IllegalStateException("Result mix must have at least one outcome");
+                }
+                for (Outcome outcome : resultMix) {
+                    if (outcome.getWeight() == null) {
+                        throw new IllegalStateException("Every outcome in a result mix must have a weight: " + outcome);
+                    }
+                }
+            }
+
+            List<Consistency> consistencies = this.consistency == null ? null : Arrays.asList(this.consistency.clone());
 
             List<Map<String, ? extends Object>> rowsDefaultedToEmptyForSuccess = this.rows;
 
             if (result == Result.success && rows == null) {
                 rowsDefaultedToEmptyForSuccess = Collections.emptyList();
             }
-            return new PrimingRequest(type, query, queryPattern, consistencies, rowsDefaultedToEmptyForSuccess, result, columnTypesMeta, variableTypesMeta, fixedDelay, config);
+            Map<String, CqlType> columnTypes = this.sharedColumnTypes;
+            if (columnTypesMeta != null) {
+                columnTypes = new HashMap<String, CqlType>();
+                for (ColumnMetadata column : columnTypesMeta) {
+                    columnTypes.put(column.getName(), column.getType());
+                }
+            }
+            // the built prime shares the config so it's copied if this builder changes it again
+            this.configShared = true;
+            return new PrimingRequest(type, new When(query, queryPattern, consistencies),
+                    new Then(variableTypesMeta, rowsDefaultedToEmptyForSuccess, result, columnTypes, fixedDelay, config.isEmpty() ? null : config, delayDistribution, resultMix, resultSequence));
         }
     }
 
+    /**
+     * A builder for a variant of this prime. The variant shares this prime's rows, column types and config
+     * rather than copying them, so making a variant costs only the fields that are changed.
+     *
+     * @return a builder with the fields of this prime
+     */
+    public PrimingRequestBuilder toBuilder() {
+        // primes retrieved from Scassandra have no type and their variants have none either
+        PrimingRequestBuilder builder = new PrimingRequestBuilder(primeType);
+        if (when != null) {
+            builder.query = when.query;
+            builder.queryPattern = when.queryPattern;
+            builder.consistency = when.consistency == null ? null : when.consistency.toArray(new Consistency[when.consistency.size()]);
+        }
+        if (then != null) {
+            // success rows are defaulted to empty again on build, so a variant with another result has none
+            builder.rows = then.rows == null || then.rows.isEmpty() ? null : SharedRows.of(then.rows);
+            builder.result = then.result;
+            builder.sharedColumnTypes = then.column_types;
+            builder.variableTypesMeta = then.variable_types;
+            builder.fixedDelay = then.fixedDelay;
+            builder.delayDistribution = then.delayDistribution;
+            builder.resultMix = then.resultMix;
+            builder.resultSequence = then.resultSequence;
+            if (then.config != null) {
+                builder.config = then.config;
+                builder.configShared = true;
+            }
+        }
+        return builder;
+    }
+
     public static PrimingRequestBuilder queryBuilder() {
         return new PrimingRequestBuilder(PrimingRequestBuilder.PrimeType.QUERY);
     }
@@ -159,10 +300,10 @@ public final class PrimingRequest {
     private final When when;
     private final Then then;
 
-    private PrimingRequest(PrimingRequestBuilder.PrimeType primeType, String query, String queryPattern, List<Consistency> consistency, List<Map<String, ?>> rows, Result result, List<ColumnMetadata> columnTypes, List<CqlType> variableTypes, Long fixedDelay, Map<String, Object> config) {
+    PrimingRequest(PrimingRequestBuilder.PrimeType primeType, When when, Then then) {
         this.primeType = primeType;
-        this.when = new When(query, queryPattern, consistency);
-        this.then = new Then(rows, result, columnTypes, variableTypes, fixedDelay, config);
+        this.when = when;
+        this.then = then;
     }
 
     public When getWhen() {
@@ -202,28 +343,30 @@ public final class PrimingRequest {
     }
 
     public final static class Then {
-        private final List<CqlType> variable_types;
-        private final List<Map<String, ? extends Object>> rows;
-        private final Result result;
-        private final Map<String, CqlType> column_types;
-        private final Long fixedDelay;
-        private final Map<String, Object> config;
-
-        private Then(List<Map<String, ?>> rows, Result result, List<ColumnMetadata> column_types, List<CqlType> variable_types, Long fixedDelay, Map<String, Object> config) {
+        // package-private so that the streaming adapters can read them without reflection
+        final List<CqlType> variable_types;
+        final List<Map<String, ? extends Object>> rows;
+        final Result result;
+        final Map<String, CqlType> column_types;
+        final Long fixedDelay;
+        final Map<String, Object> config;
+        final DelayDistribution delayDistribution;
+        final List<Outcome> resultMix;
+        final List<Outcome> resultSequence;
+        // a Then isn't changed once built and its rows may be large, so the hash is only worked out once.
+        // transient so reflective Gson leaves it out of the JSON
+        private transient int hashCode;
+
+        Then(List<CqlType> variable_types, List<Map<String, ?>> rows, Result result, Map<String, CqlType> column_types, Long fixedDelay, Map<String, Object> config, DelayDistribution delayDistribution, List<Outcome> resultMix, List<Outcome> resultSequence) {
+            this.variable_types = variable_types;
             this.rows = rows;
             this.result = result;
-            this.variable_types = variable_types;
+            this.column_types = column_types;
             this.fixedDelay = fixedDelay;
-            this.config = config.isEmpty() ? null : config;
-
-            if (column_types != null) {
-                this.column_types = new HashMap<String, CqlType>();
-                for (ColumnMetadata column_type : column_types) {
-                    this.column_types.put(column_type.getName(), column_type.getType());
-                }
-            } else {
-                this.column_types = null;
-            }
+            this.config = config;
+            this.delayDistribution = delayDistribution;
+            this.resultMix = resultMix;
+            this.resultSequence = resultSequence;
         }
 
         @Override
@@ -241,18 +384,35 @@ public final class PrimingRequest {
             if (rows != null ? !rows.equals(then.rows) : then.rows != null) return false;
             if (variable_types != null ? !variable_types.equals(then.variable_types) : then.variable_types != null)
                 return false;
+            if (delayDistribution != null ? !delayDistribution.equals(then.delayDistribution) : then.delayDistribution != null)
+                return false;
+            if (resultMix != null ? !resultMix.equals(then.resultMix) : then.resultMix != null) return false;
+            if (resultSequence != null ? !resultSequence.equals(then.resultSequence) : then.resultSequence != null)
+                return false;
 
             return true;
         }
 
         @Override
         public int hashCode() {
+            int h = hashCode;
+            if (h == 0) {
+                h = computeHashCode();
+                hashCode = h;
+            }
+            return h;
+        }
+
+        private int computeHashCode() {
             int result1 = variable_types != null ? variable_types.hashCode() : 0;
             result1 = 31 * result1 + (rows != null ? rows.hashCode() : 0);
             result1 = 31 * result1 + (result != null ? result.hashCode() : 0);
             result1 = 31 * result1 + (column_types != null ? column_types.hashCode() : 0);
             result1 = 31 * result1 + (fixedDelay != null ? fixedDelay.hashCode() : 0);
             result1 = 31 * result1 + (config != null ? config.hashCode() : 0);
+            result1 = 31 * result1 + (delayDistribution != null ? delayDistribution.hashCode() : 0);
+            result1 = 31 * result1 + (resultMix != null ? resultMix.hashCode() : 0);
+            result1 = 31 * result1 + (resultSequence != null ? resultSequence.hashCode() : 0);
             return result1;
         }
 
@@ -265,6 +425,9 @@ public final class PrimingRequest {
                     ", column_types=" + column_types +
                     ", fixedDelay=" + fixedDelay +
                     ", config=" + config +
+                    ", delayDistribution=" + delayDistribution +
+                    ", resultMix=" + resultMix +
+                    ", resultSequence=" + resultSequence +
                     '}';
         }
 
@@ -287,14 +450,29 @@ public final class PrimingRequest {
         public long getFixedDelay() {
             return fixedDelay;
         }
+
+        public DelayDistribution getDelayDistribution() {
+            return delayDistribution;
+        }
+
+        public List<Outcome> getResultMix() {
+            return resultMix == null ? null : Collections.unmodifiableList(resultMix);
+        }
+
+        public List<Outcome> getResultSequence() {
+            return resultSequence == null ? null : Collections.unmodifiableList(resultSequence);
+        }
     }
 
     public final static class When {
-        private final String query;
-        private final String queryPattern;
-        private final List<Consistency> consistency;
-
-        private When(String query, String queryPattern, List<Consistency> consistency) {
+        // package-private so that the streaming adapters can read them without reflection
+        final String query;
+        final String queryPattern;
+        final List<Consistency> consistency;
+        // worked out once as a When is hashed on every prime deduplication checks
+        private transient int hashCode;
+
+        When(String query, String queryPattern, List<Consistency> consistency) {
             this.query = query;
             this.consistency = consistency;
             this.queryPattern = queryPattern;
@@ -311,7 +489,12 @@ public final class PrimingRequest {
 
         @Override
         public int hashCode() {
-            return Objects.hash(query, queryPattern, consistency);
+            int h = hashCode;
+            if (h == 0) {
+                h = Objects.hash(query, queryPattern, consistency);
+                hashCode = h;
+            }
+            return h;
         }
 
         @Override
@@ -353,7 +536,17 @@ public final class PrimingRequest {
         success,
         read_request_timeout,
         unavailable,
-        write_request_timeout
+        write_request_timeout,
+        /**
+         * Not known to the Scassandra server bundled with this client, see
+         * {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+         */
+        overloaded,
+        /**
+         * Not known to the Scassandra server bundled with this client, see
+         * {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+         */
+        is_bootstrapping
     }
 
 }
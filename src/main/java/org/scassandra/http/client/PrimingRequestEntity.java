@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+/**
+ * Writes a prime to the connection as it is serialised, without holding its JSON in memory. Sent
+ * chunked as the length isn't known up front.
+ */
+final class PrimingRequestEntity extends AbstractHttpEntity {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final PrimingRequest primingRequest;
+    private final JsonCodec jsonCodec;
+
+    PrimingRequestEntity(PrimingRequest primingRequest, JsonCodec jsonCodec) {
+        this.primingRequest = primingRequest;
+        this.jsonCodec = jsonCodec;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    /**
+     * For interceptors and wrapping entities that read the content rather than write it. The prime is
+     * serialised into a pipe on another thread, so its JSON still isn't held in memory. If serialising it
+     * fails, the read that reaches the end of what was written throws the failure.
+     */
+    @Override
+    public InputStream getContent() throws IOException {
+        final SerialisedInputStream in = new SerialisedInputStream();
+        final PipedOutputStream out = new PipedOutputStream(in);
+        Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    writeTo(out);
+                } catch (IOException e) {
+                    in.failure = e;
+                } catch (RuntimeException e) {
+                    in.failure = e;
+                } finally {
+                    try {
+                        out.close();
+                    } catch (IOException e) {
+                        // the reader has gone
+                    }
+                }
+            }
+        }, "scassandra-prime-serialiser");
+        writer.setDaemon(true);
+        writer.start();
+        return in;
+    }
+
+    @Override
+    public void writeTo(OutputStream outstream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outstream, UTF_8));
+        jsonCodec.writePrimingRequest(primingRequest, writer);
+        writer.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+    private static final class SerialisedInputStream extends PipedInputStream {
+        private static final int PIPE_SIZE = 8192;
+
+        private volatile Exception failure;
+
+        private SerialisedInputStream() {
+            super(PIPE_SIZE);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            int read = super.read();
+            if (read == -1) {
+                throwFailure();
+            }
+            return read;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                throwFailure();
+            }
+            return read;
+        }
+
+        private void throwFailure() throws IOException {
+            if (failure != null) {
+                throw new IOException("Serialising the prime failed", failure);
+            }
+        }
+    }
+}
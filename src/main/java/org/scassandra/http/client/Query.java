@@ -15,12 +15,18 @@
  */
 package org.scassandra.http.client;
 
-public final class Query {
+public final class Query implements TimedActivity {
     
     public static class QueryBuilder {
 
         private String query;
         private String consistency = "ONE";
+        private String result;
+        private String connectionId;
+        private Long receivedAt;
+        private Long receivedNanos;
+        private Long respondedAt;
+        private Long respondedNanos;
 
         private QueryBuilder() {}
 
@@ -39,11 +45,46 @@ public final class Query {
             return this;
         }
         
+        /**
+         * Not compared by equals, so only set it on Queries that won't be matched against.
+         * @param result The outcome the query received
+         * @return this builder
+         */
+        public QueryBuilder withResult(String result){
+            this.result = result;
+            return this;
+        }
+
+        public QueryBuilder withConnectionId(String connectionId) {
+            this.connectionId = connectionId;
+            return this;
+        }
+
+        public QueryBuilder withReceivedAt(long receivedAt) {
+            this.receivedAt = receivedAt;
+            return this;
+        }
+
+        public QueryBuilder withReceivedNanos(long receivedNanos) {
+            this.receivedNanos = receivedNanos;
+            return this;
+        }
+
+        public QueryBuilder withRespondedAt(long respondedAt) {
+            this.respondedAt = respondedAt;
+            return this;
+        }
+
+        public QueryBuilder withRespondedNanos(long respondedNanos) {
+            this.respondedNanos = respondedNanos;
+            return this;
+        }
+
         public Query build(){
             if (query == null) {
                 throw new IllegalStateException("Must set query");
             }
-            return new Query(this.query, this.consistency);
+            return new Query(this.query, this.consistency, this.result, this.connectionId, this.receivedAt, this.receivedNanos, this.respondedAt, this.respondedNanos);
         }
     }
 
@@ -51,10 +92,23 @@ public final class Query {
 
     private final String query;
     private final String consistency;
-
-    private Query(String query, String consistency) {
+    // not part of equals so that recorded queries match ones built without them
+    private final String result;
+    private final String connectionId;
+    private final Long receivedAt;
+    private final Long receivedNanos;
+    private final Long respondedAt;
+    private final Long respondedNanos;
+
+    Query(String query, String consistency, String result, String connectionId, Long receivedAt, Long receivedNanos, Long respondedAt, Long respondedNanos) {
         this.query = query;
         this.consistency = consistency;
+        this.result = result;
+        this.connectionId = connectionId;
+        this.receivedAt = receivedAt;
+        this.receivedNanos = receivedNanos;
+        this.respondedAt = respondedAt;
+        this.respondedNanos = respondedNanos;
     }
 
     public String getQuery() {
@@ -65,11 +119,54 @@ public final class Query {
         return consistency;
     }
 
+    /**
+     * @return The outcome the query received, for example read_request_timeout, if Scassandra recorded it
+     */
+    public String getResult() {
+        return result;
+    }
+
+    @Override
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    @Override
+    public Long getReceivedAt() {
+        return receivedAt;
+    }
+
+    @Override
+    public Long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    @Override
+    public Long getRespondedAt() {
+        return respondedAt;
+    }
+
+    @Override
+    public Long getRespondedNanos() {
+        return respondedNanos;
+    }
+
+    @Override
+    public Long getServiceTimeNanos() {
+        return receivedNanos != null && respondedNanos != null ? respondedNanos - receivedNanos : null;
+    }
+
     @Override
     public String toString() {
         return "Query{" +
                 "query='" + query + '\'' +
                 ", consistency='" + consistency + '\'' +
+                (result != null ? ", result='" + result + '\'' : "") +
+                (connectionId != null ? ", connectionId='" + connectionId + '\'' : "") +
+                (receivedAt != null ? ", receivedAt=" + receivedAt : "") +
+                (receivedNanos != null ? ", receivedNanos=" + receivedNanos : "") +
+                (respondedAt != null ? ", respondedAt=" + respondedAt : "") +
+                (respondedNanos != null ? ", respondedNanos=" + respondedNanos : "") +
                 '}';
     }
 
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+/**
+ * Limits the rate a primed statement is executed at with a token bucket. Executions beyond the limit
+ * receive an overloaded error, or with a queue delay are held until a token is free, up to that delay.
+ * <p>
+ * The Scassandra server bundled with this client doesn't enforce rate limits, so primes with one are
+ * only sent by a client built with {@link PrimingClient.PrimingClientBuilder#withExtendedPrimes(boolean)}.
+ */
+public class RateLimitConfig extends Config {
+
+    static final String REQUESTS_PER_SECOND = "limit.requests_per_second";
+    static final String BURST = "limit.burst";
+    static final String MAX_QUEUE_DELAY = "limit.rate_max_queue_delay";
+
+    private final double requestsPerSecond;
+    private final int burst;
+    private final long maxQueueDelay;
+
+    public RateLimitConfig(double requestsPerSecond, int burst) {
+        this(requestsPerSecond, burst, 0);
+    }
+
+    /**
+     * @param requestsPerSecond Rate the bucket is refilled at
+     * @param burst             Size of the bucket, the executions allowed at once after a quiet period
+     * @param maxQueueDelay     Longest an execution is held waiting for a token in milliseconds before it
+     *                          is overloaded
+     */
+    public RateLimitConfig(double requestsPerSecond, int burst, long maxQueueDelay) {
+        if (!(requestsPerSecond > 0) || burst < 1 || maxQueueDelay < 0) {
+            throw new IllegalArgumentException(String.format("Rate limit needs a positive rate and burst, rate %s burst %s max queue delay %s",
+                    requestsPerSecond, burst, maxQueueDelay));
+        }
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.maxQueueDelay = maxQueueDelay;
+    }
+
+    @Override
+    Map<String, ?> getProperties() {
+        return ImmutableMap.of(
+                REQUESTS_PER_SECOND, String.valueOf(this.requestsPerSecond),
+                BURST, String.valueOf(this.burst),
+                MAX_QUEUE_DELAY, String.valueOf(this.maxQueueDelay)
+        );
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.entity.ContentType;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Decodes a response body as it is read from the connection so it can be parsed without first being
+ * copied into a String. Optionally keeps the first characters read so they can be logged.
+ * <p>
+ * UTF-8 bodies, which is what Scassandra sends, are decoded with a decoder and byte buffer kept per thread
+ * rather than ones allocated for every response. A reader must be finished with before the next one is
+ * created on the same thread, reading it afterwards throws an IllegalStateException.
+ */
+final class ResponseBodyReader extends FilterReader {
+
+    static final int LOGGED_PREFIX_CHARACTERS = 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BYTE_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<Utf8Decoding> DECODING = new ThreadLocal<Utf8Decoding>() {
+        @Override
+        protected Utf8Decoding initialValue() {
+            return new Utf8Decoding();
+        }
+    };
+
+    private final StringBuilder prefix;
+    private boolean truncated = false;
+
+    private ResponseBodyReader(Reader in, boolean capturePrefix) {
+        super(in);
+        this.prefix = capturePrefix ? new StringBuilder() : null;
+    }
+
+    /**
+     * @param entity The response entity, must not be null
+     * @param capturePrefix Whether to keep the start of the body for logging
+     */
+    static ResponseBodyReader of(HttpEntity entity, boolean capturePrefix) throws IOException {
+        Charset charset = ContentType.getOrDefault(entity).getCharset();
+        if (charset != null && !charset.equals(UTF_8)) {
+            return new ResponseBodyReader(new InputStreamReader(entity.getContent(), charset), capturePrefix);
+        }
+        return new ResponseBodyReader(DECODING.get().reader(entity.getContent()), capturePrefix);
+    }
+
+    @Override
+    public int read() throws IOException {
+        int c = super.read();
+        if (c != -1) {
+            capture(c);
+        }
+        return c;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0 && prefix != null && !truncated) {
+            int captured = Math.min(read, LOGGED_PREFIX_CHARACTERS - prefix.length());
+            prefix.append(buffer, offset, captured);
+            truncated = captured < read;
+        }
+        return read;
+    }
+
+    private void capture(int c) {
+        if (prefix == null || truncated) {
+            return;
+        }
+        if (prefix.length() < LOGGED_PREFIX_CHARACTERS) {
+            prefix.append((char) c);
+        } else {
+            truncated = true;
+        }
+    }
+
+    /**
+     * @return The start of the body read so far, or an empty String if the prefix isn't being captured
+     */
+    String loggedPrefix() {
+        if (prefix == null) {
+            return "";
+        }
+        return truncated ? prefix + "..." : prefix.toString();
+    }
+
+    /*
+    The decoder and byte buffer of one thread, lent to the latest reader created on it
+     */
+    private static final class Utf8Decoding {
+        private final CharsetDecoder decoder = UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+        private Utf8Reader owner;
+
+        Reader reader(InputStream in) {
+            decoder.reset();
+            bytes.clear().flip();
+            owner = new Utf8Reader(in, this);
+            return owner;
+        }
+    }
+
+    private static final class Utf8Reader extends Reader {
+        private final InputStream in;
+        private final Utf8Decoding decoding;
+        private boolean endOfInput = false;
+        private boolean flushed = false;
+
+        private Utf8Reader(InputStream in, Utf8Decoding decoding) {
+            this.in = in;
+            this.decoding = decoding;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            if (decoding.owner != this) {
+                throw new IllegalStateException("Another response body has been read on this thread since this one was created");
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (flushed) {
+                return -1;
+            }
+            CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+            ByteBuffer bytes = decoding.bytes;
+            while (true) {
+                CoderResult result = decoding.decoder.decode(bytes, out, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (result.isOverflow() || (out.position() > offset && in.available() == 0 && !endOfInput)) {
+                    return out.position() - offset;
+                }
+                if (endOfInput) {
+                    decoding.decoder.flush(out);
+                    flushed = true;
+                    int read = out.position() - offset;
+                    return read == 0 ? -1 : read;
+                }
+                bytes.compact();
+                int read = in.read(bytes.array(), bytes.position(), bytes.remaining());
+                if (read == -1) {
+                    endOfInput = true;
+                } else {
+                    bytes.position(bytes.position() + read);
+                }
+                bytes.flip();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read only copy of the rows given to a PrimingRequestBuilder. Variants of a prime made with toBuilder()
+ * share the same instance, so the rows are neither copied nor hashed again for each variant.
+ */
+final class SharedRows extends AbstractList<Map<String, ?>> {
+
+    // copied so that changes to the caller's list can't make the cached hash stale
+    private final List<Map<String, ?>> rows;
+    // racy but idempotent like String's, zero until it has been computed
+    private int hashCode;
+
+    private SharedRows(List<? extends Map<String, ?>> rows) {
+        this.rows = new ArrayList<Map<String, ?>>(rows);
+    }
+
+    /*
+    Rows that are already shared, or streamed when the prime is sent, aren't wrapped
+     */
+    @SuppressWarnings("unchecked")
+    static List<Map<String, ?>> of(List<? extends Map<String, ?>> rows) {
+        if (rows == null || rows instanceof SharedRows || rows instanceof StreamedRows) {
+            return (List<Map<String, ?>>) rows;
+        }
+        return new SharedRows(rows);
+    }
+
+    @Override
+    public Map<String, ?> get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hashCode;
+        if (h == 0) {
+            h = rows.hashCode();
+            hashCode = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof SharedRows) {
+            SharedRows other = (SharedRows) o;
+            if (other.rows == rows) {
+                return true;
+            }
+            if (hashCode() != other.hashCode()) {
+                return false;
+            }
+            return rows.equals(other.rows);
+        }
+        return rows.equals(o);
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Map;
+
+/**
+ * Rows that write themselves into a prime's JSON rather than being serialised one Map at a time. They're
+ * still Lists of Maps so everything that reads the rows of a prime keeps working, but the Maps are only
+ * created when a row is accessed.
+ */
+abstract class StreamedRows extends AbstractList<Map<String, ?>> {
+
+    abstract void writeRows(JsonWriter out, AdminTypeAdapterFactory.Values values) throws IOException;
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{size=" + size() + '}';
+    }
+}
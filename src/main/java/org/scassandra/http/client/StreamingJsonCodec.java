@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Drives the streaming adapters directly on a JsonReader / JsonWriter rather than going through Gson's
+ * toJson / fromJson. Output isn't HTML escaped, so the = and ' that CQL is full of are written as they are
+ * rather than as six character escape sequences, and reading is strict.
+ *
+ * Values in rows and variables that aren't strings, booleans, integral numbers, maps or collections are
+ * still serialised by the Gson instance created with {@link GsonJsonCodec#defaultGsonBuilder()}.
+ */
+public class StreamingJsonCodec implements JsonCodec {
+
+    private final TypeAdapter<PrimingRequest> primingRequestAdapter;
+    private final TypeAdapter<Query> queryAdapter;
+    private final TypeAdapter<Connection> connectionAdapter;
+    private final TypeAdapter<PreparedStatementExecution> preparedStatementExecutionAdapter;
+
+    public StreamingJsonCodec() {
+        Gson gson = GsonJsonCodec.defaultGsonBuilder().create();
+        this.primingRequestAdapter = gson.getAdapter(PrimingRequest.class);
+        this.queryAdapter = gson.getAdapter(Query.class);
+        this.connectionAdapter = gson.getAdapter(Connection.class);
+        this.preparedStatementExecutionAdapter = gson.getAdapter(PreparedStatementExecution.class);
+    }
+
+    @Override
+    public void writePrimingRequest(PrimingRequest primingRequest, Writer out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.setSerializeNulls(false);
+        primingRequestAdapter.write(writer, primingRequest);
+        writer.flush();
+    }
+
+    @Override
+    public List<PrimingRequest> readPrimingRequests(Reader in) throws IOException {
+        return readList(in, primingRequestAdapter);
+    }
+
+    @Override
+    public List<Query> readQueries(Reader in) throws IOException {
+        return readList(in, queryAdapter);
+    }
+
+    @Override
+    public List<Connection> readConnections(Reader in) throws IOException {
+        return readList(in, connectionAdapter);
+    }
+
+    @Override
+    public List<PreparedStatementExecution> readPreparedStatementExecutions(Reader in) throws IOException {
+        return readList(in, preparedStatementExecutionAdapter);
+    }
+
+    @Override
+    public String readVersion(Reader in) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        String version = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (reader.nextName().equals("version") && reader.peek() == JsonToken.STRING) {
+                version = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return version;
+    }
+
+    private static <T> List<T> readList(Reader in, TypeAdapter<T> adapter) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        List<T> result = new ArrayList<T>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(adapter.read(reader));
+        }
+        reader.endArray();
+        return result;
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import org.scassandra.http.client.types.ColumnMetadata;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+
+/**
+ * Generates rows of valid values for the CqlTypes of the columns, including lists, sets and maps. Every
+ * value is derived from the seed, the row and the column, so the same builder always generates the same
+ * rows and any row can be generated without generating the ones before it. Rows are generated while the
+ * prime is sent:
+ *
+ * <pre>
+ * PrimingRequest.queryBuilder()
+ *         .withQuery("select * from events")
+ *         .withRows(SyntheticRows.builder()
+ *                 .withSeed(42)
+ *                 .withColumn(column("id", BIG_INT), SyntheticRows.ColumnSpec.builder().withSequentialValues().build())
+ *                 .withColumn(column("tags", set(TEXT)), SyntheticRows.ColumnSpec.builder().withCardinality(100).withSizes(0, 5).build())
+ *                 .withColumn(column("payload", BLOB), SyntheticRows.ColumnSpec.builder().withNullRate(0.1).withSizes(100, 10000).build())
+ *                 .withRowCount(1000000)
+ *                 .build())
+ *         .build();
+ * </pre>
+ */
+public final class SyntheticRows implements GeneratedRows.RowSupplier {
+
+    public enum SizeDistribution {
+        /**
+         * Every size between the minimum and the maximum is equally likely.
+         */
+        UNIFORM,
+        /**
+         * Sizes near the minimum are much more likely than sizes near the maximum.
+         */
+        SKEWED
+    }
+
+    /**
+     * How the values of a column are generated.
+     */
+    public static final class ColumnSpec {
+
+        public static class ColumnSpecBuilder {
+            private long cardinality = 0;
+            private double nullRate = 0;
+            private int minSize = 1;
+            private int maxSize = 16;
+            private SizeDistribution sizeDistribution = SizeDistribution.UNIFORM;
+            private boolean sequential = false;
+
+            private ColumnSpecBuilder() {
+            }
+
+            /**
+             * Defaults to 0, which means there's no limit on the number of distinct values.
+             *
+             * @param cardinality The number of distinct non null values
+             * @return this builder
+             */
+            public ColumnSpecBuilder withCardinality(long cardinality) {
+                this.cardinality = cardinality;
+                return this;
+            }
+
+            /**
+             * Defaults to 0.
+             *
+             * @param nullRate The fraction of rows, from 0 to 1, that don't have a value for the column
+             * @return this builder
+             */
+            public ColumnSpecBuilder withNullRate(double nullRate) {
+                this.nullRate = nullRate;
+                return this;
+            }
+
+            /**
+             * The length of text, the number of bytes of blobs and the number of elements of collections.
+             * Defaults to between 1 and 16.
+             *
+             * @param minSize Inclusive
+             * @param maxSize Inclusive
+             * @return this builder
+             */
+            public ColumnSpecBuilder withSizes(int minSize, int maxSize) {
+                this.minSize = minSize;
+                this.maxSize = maxSize;
+                return this;
+            }
+
+            /**
+             * Defaults to UNIFORM.
+             *
+             * @param sizeDistribution How sizes are distributed between the minimum and the maximum
+             * @return this builder
+             */
+            public ColumnSpecBuilder withSizeDistribution(SizeDistribution sizeDistribution) {
+                this.sizeDistribution = sizeDistribution;
+                return this;
+            }
+
+            /**
+             * Integral columns get the values 0, 1, 2... and text columns the column name followed by the
+             * same numbers, which is useful for keys. With a cardinality the values wrap around.
+             *
+             * @return this builder
+             */
+            public ColumnSpecBuilder withSequentialValues() {
+                this.sequential = true;
+                return this;
+            }
+
+            public ColumnSpec build() {
+                if (cardinality < 0) {
+                    throw new IllegalStateException("Cardinality can't be negative: " + cardinality);
+                }
+                if (nullRate < 0 || nullRate > 1) {
+                    throw new IllegalStateException("Null rate must be between 0 and 1: " + nullRate);
+                }
+                if (minSize < 0 || maxSize < minSize) {
+                    throw new IllegalStateException(String.format("Invalid sizes: min %d max %d", minSize, maxSize));
+                }
+                if (sizeDistribution == null) {
+                    throw new IllegalStateException("Must set a size distribution");
+                }
+                return new ColumnSpec(cardinality, nullRate, minSize, maxSize, sizeDistribution, sequential);
+            }
+        }
+
+        public static ColumnSpecBuilder builder() {
+            return new ColumnSpecBuilder();
+        }
+
+        private final long cardinality;
+        private final double nullRate;
+        private final int minSize;
+        private final int maxSize;
+        private final SizeDistribution sizeDistribution;
+        private final boolean sequential;
+
+        private ColumnSpec(long cardinality, double nullRate, int minSize, int maxSize, SizeDistribution sizeDistribution, boolean sequential) {
+            this.cardinality = cardinality;
+            this.nullRate = nullRate;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.sizeDistribution = sizeDistribution;
+            this.sequential = sequential;
+        }
+    }
+
+    public static class SyntheticRowsBuilder {
+        private long seed = 0;
+        private int rowCount = 0;
+        private final List<ColumnMetadata> columns = new ArrayList<ColumnMetadata>();
+        private final List<ColumnSpec> specs = new ArrayList<ColumnSpec>();
+
+        private SyntheticRowsBuilder() {
+        }
+
+        public SyntheticRowsBuilder withSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public SyntheticRowsBuilder withRowCount(int rowCount) {
+            this.rowCount = rowCount;
+            return this;
+        }
+
+        public SyntheticRowsBuilder withColumn(ColumnMetadata column) {
+            return withColumn(column, ColumnSpec.builder().build());
+        }
+
+        public SyntheticRowsBuilder withColumn(ColumnMetadata column, ColumnSpec spec) {
+            this.columns.add(column);
+            this.specs.add(spec);
+            return this;
+        }
+
+        public SyntheticRows build() {
+            if (columns.isEmpty()) {
+                throw new IllegalStateException("Must add at least one column");
+            }
+            if (rowCount < 0) {
+                throw new IllegalStateException("Row count can't be negative: " + rowCount);
+            }
+            Set<String> names = new HashSet<String>();
+            TypeNode[] types = new TypeNode[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                ColumnMetadata column = columns.get(i);
+                if (!names.add(column.getName())) {
+                    throw new IllegalStateException("Duplicate column " + column.getName());
+                }
+                types[i] = TypeNode.parse(column.getType().serialise());
+            }
+            return new SyntheticRows(seed, rowCount, columns, specs, types);
+        }
+    }
+
+    public static SyntheticRowsBuilder builder() {
+        return new SyntheticRowsBuilder();
+    }
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final long NULL_SALT = 0x632BE59BD9B4E019L;
+    private static final long VALUE_SALT = 0x8CB92BA72F3D8DD7L;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final long MIN_TIMESTAMP = 946684800000L; // 2000-01-01
+    private static final long TIMESTAMP_RANGE = 946080000000L; // 30 years
+    // 100ns intervals between the UUID epoch, 1582-10-15, and the unix epoch
+    private static final long UUID_EPOCH_OFFSET = 0x01B21DD213814000L;
+
+    private final long seed;
+    private final int rowCount;
+    private final List<ColumnMetadata> columns;
+    private final String[] names;
+    private final ColumnSpec[] specs;
+    private final TypeNode[] types;
+
+    private SyntheticRows(long seed, int rowCount, List<ColumnMetadata> columns, List<ColumnSpec> specs, TypeNode[] types) {
+        this.seed = seed;
+        this.rowCount = rowCount;
+        this.columns = Collections.unmodifiableList(new ArrayList<ColumnMetadata>(columns));
+        this.specs = specs.toArray(new ColumnSpec[specs.size()]);
+        this.types = types;
+        this.names = new String[columns.size()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = columns.get(i).getName();
+        }
+    }
+
+    public List<ColumnMetadata> getColumns() {
+        return columns;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return The rows, generated each time they are iterated
+     */
+    public GeneratedRows rows() {
+        return GeneratedRows.of(rowCount, this);
+    }
+
+    @Override
+    public Map<String, ?> row(int index) {
+        Map<String, Object> row = new LinkedHashMap<String, Object>();
+        for (int column = 0; column < names.length; column++) {
+            ColumnSpec spec = specs[column];
+            long columnSeed = mix(seed + (column + 1) * GOLDEN_GAMMA);
+            if (spec.nullRate > 0 && toUnitInterval(mix(columnSeed ^ NULL_SALT ^ mix(index))) < spec.nullRate) {
+                continue;
+            }
+            long valueIndex = index;
+            if (spec.cardinality > 0) {
+                valueIndex = spec.sequential ? index % spec.cardinality : floorMod(mix(columnSeed ^ mix(index)), spec.cardinality);
+            }
+            Random64 random = new Random64(mix(columnSeed ^ VALUE_SALT ^ mix(valueIndex)));
+            row.put(names[column], spec.sequential ? sequentialValue(types[column], names[column], valueIndex, random, spec)
+                    : value(types[column], random, spec));
+        }
+        return row;
+    }
+
+    private static Object sequentialValue(TypeNode type, String name, long valueIndex, Random64 random, ColumnSpec spec) {
+        String typeName = type.name;
+        if (typeName.equals("bigint") || typeName.equals("counter")) {
+            return valueIndex;
+        } else if (typeName.equals("int")) {
+            return (int) valueIndex;
+        } else if (typeName.equals("varint")) {
+            return BigInteger.valueOf(valueIndex);
+        } else if (typeName.equals("text") || typeName.equals("varchar") || typeName.equals("ascii")) {
+            return name + "-" + valueIndex;
+        }
+        return value(type, random, spec);
+    }
+
+    private static Object value(TypeNode type, Random64 random, ColumnSpec spec) {
+        String name = type.name;
+        if (name.equals("ascii") || name.equals("text") || name.equals("varchar")) {
+            int length = size(random, spec);
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            return new String(chars);
+        } else if (name.equals("bigint") || name.equals("counter")) {
+            return random.nextLong();
+        } else if (name.equals("int")) {
+            return (int) random.nextLong();
+        } else if (name.equals("varint")) {
+            return BigInteger.valueOf(random.nextLong());
+        } else if (name.equals("decimal")) {
+            return BigDecimal.valueOf(random.nextLong() % 1000000000000L, 2);
+        } else if (name.equals("double")) {
+            return (random.nextDouble() * 2 - 1) * 1e6;
+        } else if (name.equals("float")) {
+            return (float) ((random.nextDouble() * 2 - 1) * 1e3);
+        } else if (name.equals("boolean")) {
+            return random.nextLong() < 0;
+        } else if (name.equals("timestamp")) {
+            return MIN_TIMESTAMP + (long) (random.nextDouble() * TIMESTAMP_RANGE);
+        } else if (name.equals("uuid")) {
+            long msb = (random.nextLong() & ~0xF000L) | 0x4000L;
+            long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(msb, lsb);
+        } else if (name.equals("timeuuid")) {
+            long time = (MIN_TIMESTAMP + (long) (random.nextDouble() * TIMESTAMP_RANGE)) * 10000 + UUID_EPOCH_OFFSET;
+            long msb = (time << 32) | ((time & 0xFFFF00000000L) >>> 16) | 0x1000L | ((time >>> 48) & 0x0FFFL);
+            long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(msb, lsb);
+        } else if (name.equals("inet")) {
+            long bits = random.nextLong();
+            byte[] address = new byte[]{(byte) (bits >>> 24), (byte) (bits >>> 16), (byte) (bits >>> 8), (byte) bits};
+            try {
+                return InetAddress.getByAddress(address);
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        } else if (name.equals("blob")) {
+            int length = size(random, spec);
+            char[] hex = new char[2 + length * 2];
+            hex[0] = '0';
+            hex[1] = 'x';
+            for (int i = 0; i < length; i++) {
+                int b = random.nextInt(256);
+                hex[2 + i * 2] = HEX[b >>> 4];
+                hex[3 + i * 2] = HEX[b & 0xF];
+            }
+            return new String(hex);
+        } else if (name.equals("list")) {
+            int size = size(random, spec);
+            List<Object> list = new ArrayList<Object>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(value(type.parameters.get(0), random, spec));
+            }
+            return list;
+        } else if (name.equals("set")) {
+            int size = size(random, spec);
+            Set<Object> set = new LinkedHashSet<Object>();
+            for (int i = 0; i < size; i++) {
+                set.add(value(type.parameters.get(0), random, spec));
+            }
+            return set;
+        } else if (name.equals("map")) {
+            int size = size(random, spec);
+            Map<Object, Object> map = new LinkedHashMap<Object, Object>();
+            for (int i = 0; i < size; i++) {
+                map.put(value(type.parameters.get(0), random, spec), value(type.parameters.get(1), random, spec));
+            }
+            return map;
+        }
+        throw new IllegalStateException("No generator for type " + name);
+    }
+
+    private static int size(Random64 random, ColumnSpec spec) {
+        int range = spec.maxSize - spec.minSize + 1;
+        double u = random.nextDouble();
+        if (spec.sizeDistribution == SizeDistribution.SKEWED) {
+            u = u * u * u;
+        }
+        return spec.minSize + Math.min(range - 1, (int) (u * range));
+    }
+
+    private static long floorMod(long value, long modulus) {
+        long mod = value % modulus;
+        return mod < 0 ? mod + modulus : mod;
+    }
+
+    private static double toUnitInterval(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    /*
+    The SplitMix64 finaliser, spreads any change in the input over all the bits of the output
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class Random64 {
+        private long state;
+
+        private Random64(long seed) {
+            this.state = seed;
+        }
+
+        long nextLong() {
+            state += GOLDEN_GAMMA;
+            return mix(state);
+        }
+
+        double nextDouble() {
+            return toUnitInterval(nextLong());
+        }
+
+        int nextInt(int bound) {
+            return (int) ((nextLong() >>> 1) % bound);
+        }
+    }
+
+    /*
+    A parsed type string such as map<text,list<int>>
+     */
+    static final class TypeNode {
+        private static final Set<String> PRIMITIVES = new HashSet<String>(Arrays.asList("ascii", "bigint", "blob", "boolean",
+                "counter", "decimal", "double", "float", "inet", "int", "text", "timestamp", "timeuuid", "uuid", "varchar", "varint"));
+
+        final String name;
+        final List<TypeNode> parameters;
+
+        private TypeNode(String name, List<TypeNode> parameters) {
+            this.name = name;
+            this.parameters = parameters;
+        }
+
+        static TypeNode parse(String type) {
+            int[] position = new int[]{0};
+            TypeNode node = parse(type, position);
+            if (position[0] != type.length()) {
+                throw new IllegalArgumentException("Can't generate values for type " + type);
+            }
+            return node;
+        }
+
+        private static TypeNode parse(String type, int[] position) {
+            int start = position[0];
+            while (position[0] < type.length() && "<>,".indexOf(type.charAt(position[0])) < 0) {
+                position[0]++;
+            }
+            String name = type.substring(start, position[0]).trim().toLowerCase();
+            List<TypeNode> parameters = new ArrayList<TypeNode>();
+            if (position[0] < type.length() && type.charAt(position[0]) == '<') {
+                do {
+                    position[0]++;
+                    parameters.add(parse(type, position));
+                } while (position[0] < type.length() && type.charAt(position[0]) == ',');
+                if (position[0] >= type.length() || type.charAt(position[0]) != '>') {
+                    throw new IllegalArgumentException("Can't generate values for type " + type);
+                }
+                position[0]++;
+            }
+            int expectedParameters = name.equals("map") ? 2 : name.equals("list") || name.equals("set") ? 1 : 0;
+            if (parameters.size() != expectedParameters || (expectedParameters == 0 && !PRIMITIVES.contains(name))) {
+                throw new IllegalArgumentException("Can't generate values for type " + type);
+            }
+            return new TypeNode(name, parameters);
+        }
+    }
+}
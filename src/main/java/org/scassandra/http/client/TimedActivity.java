@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+/**
+ * Recorded activity with the connection it arrived on and when it was received and answered. Wall clock
+ * times are milliseconds since the epoch, nano times are from a monotonic clock so are only comparable
+ * with other nano times from the same Scassandra. Each is null if it wasn't recorded.
+ */
+public interface TimedActivity {
+
+    String getConnectionId();
+
+    Long getReceivedAt();
+
+    Long getReceivedNanos();
+
+    Long getRespondedAt();
+
+    Long getRespondedNanos();
+
+    /**
+     * @return the time spent inside Scassandra in nanoseconds, null unless both nano times were recorded
+     */
+    Long getServiceTimeNanos();
+}
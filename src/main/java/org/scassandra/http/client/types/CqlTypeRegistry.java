@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client.types;
+
+import org.scassandra.cql.CqlType;
+import org.scassandra.cql.CqlTypeFactory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Interns parsed CqlTypes by their type string so each distinct type is parsed once no matter how many
+ * times it appears in the responses from Scassandra. Thread safe.
+ */
+public class CqlTypeRegistry {
+
+    private static final CqlTypeRegistry SHARED = new CqlTypeRegistry();
+
+    /**
+     * @return The registry used by the PrimingClient and the ActivityClient.
+     */
+    public static CqlTypeRegistry shared() {
+        return SHARED;
+    }
+
+    private final ConcurrentMap<String, CqlType> types = new ConcurrentHashMap<String, CqlType>();
+
+    public CqlType lookup(String type) {
+        CqlType cqlType = types.get(type);
+        if (cqlType != null) {
+            return cqlType;
+        }
+        // the factory is cheap to create and this avoids relying on it being thread safe
+        CqlType parsed = new CqlTypeFactory().buildType(type);
+        CqlType existing = types.putIfAbsent(type, parsed);
+        return existing != null ? existing : parsed;
+    }
+
+    int size() {
+        return types.size();
+    }
+}
@@ -17,16 +17,23 @@ package org.scassandra.http.client.types;
 
 import com.google.gson.*;
 import org.scassandra.cql.CqlType;
-import org.scassandra.cql.CqlTypeFactory;
 
 import java.lang.reflect.Type;
 
 public class GsonCqlTypeDeserialiser implements JsonDeserializer<CqlType> {
 
-    private CqlTypeFactory cqlTypeFactory = new CqlTypeFactory();
+    private final CqlTypeRegistry cqlTypeRegistry;
+
+    public GsonCqlTypeDeserialiser() {
+        this(CqlTypeRegistry.shared());
+    }
+
+    public GsonCqlTypeDeserialiser(CqlTypeRegistry cqlTypeRegistry) {
+        this.cqlTypeRegistry = cqlTypeRegistry;
+    }
 
     @Override
     public CqlType deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-        return cqlTypeFactory.buildType(json.getAsString());
+        return cqlTypeRegistry.lookup(json.getAsString());
     }
 }
@@ -26,7 +26,9 @@ import org.scassandra.http.client.PrimingClient;
 /**
  * ClassRule: Starts scassandra before the tests run and stops scassandra when all tests have finished.
  *
- * Rule: Clears all primes and recorded activity between each test.
+ * Rule: Clears all primes and recorded activity between each test. Primes sent with
+ * {@link PrimingClient#primeBase(org.scassandra.http.client.PrimingRequest)}, for example in a
+ * BeforeClass, are kept and only the primes sent by the test are reverted.
  */
 public class ScassandraServerRule implements TestRule {
 
@@ -55,7 +57,11 @@ public class ScassandraServerRule implements TestRule {
                         scassandra.stop();
                     }
                 } else {
-                    primingClient().clearAllPrimes();
+                    if (primingClient().hasBaseLayer()) {
+                        primingClient().revertToBase();
+                    } else {
+                        primingClient().clearAllPrimes();
+                    }
                     activityClient().clearAllRecordedActivity();
                     base.evaluate();
                 }
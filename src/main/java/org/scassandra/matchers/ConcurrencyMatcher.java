@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+import org.scassandra.analysis.ActivityAnalysis;
+
+/**
+ * Matches an analysis whose peak concurrency a driver with the given pool could have produced: no more
+ * than the max requests on any connection and no more than pool size times that across all of them.
+ * Doesn't match an analysis of no activity or of activity recorded without nano times.
+ */
+class ConcurrencyMatcher extends TypeSafeMatcher<ActivityAnalysis> {
+
+    private final int poolSize;
+    private final int maxRequestsPerConnection;
+
+    ConcurrencyMatcher(int poolSize, int maxRequestsPerConnection) {
+        if (poolSize < 1) throw new IllegalArgumentException("pool size " + poolSize);
+        if (maxRequestsPerConnection < 1) throw new IllegalArgumentException("max requests per connection " + maxRequestsPerConnection);
+        this.poolSize = poolSize;
+        this.maxRequestsPerConnection = maxRequestsPerConnection;
+    }
+
+    @Override
+    protected boolean matchesSafely(ActivityAnalysis analysis) {
+        // peaks are only worked out from timed activity, so they say nothing when any is untimed
+        return analysis.getAnalysed() > 0 && analysis.getUntimed() == 0
+                && analysis.getPeakConcurrencyPerConnection() <= maxRequestsPerConnection
+                && analysis.getPeakConcurrency() <= (long) poolSize * maxRequestsPerConnection;
+    }
+
+    @Override
+    public void describeMismatchSafely(ActivityAnalysis analysis, Description description) {
+        if (analysis.getAnalysed() == 0) {
+            description.appendText("no activity was analysed");
+            return;
+        }
+        if (analysis.getUntimed() > 0) {
+            description.appendText(analysis.getUntimed() + " of " + analysis.getAnalysed()
+                    + " activities were recorded without nano times so concurrency is unknown");
+            return;
+        }
+        description.appendText("peak concurrency was " + analysis.getPeakConcurrency()
+                + " and " + analysis.getPeakConcurrencyPerConnection() + " on one connection, by connection "
+                + analysis.getPeakConcurrencyByConnection());
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText("Expected peak concurrency of at most " + maxRequestsPerConnection + " per connection and "
+                + (long) poolSize * maxRequestsPerConnection + " in total");
+    }
+}
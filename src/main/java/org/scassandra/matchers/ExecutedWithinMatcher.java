@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+import org.scassandra.http.client.TimedActivity;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matches recorded activity that was all received and answered within a window, measured from the
+ * first activity received using Scassandra's monotonic clock.
+ */
+class ExecutedWithinMatcher extends TypeSafeMatcher<List<? extends TimedActivity>> {
+
+    private final long windowNanos;
+
+    ExecutedWithinMatcher(long window, TimeUnit unit) {
+        if (window < 0) throw new IllegalArgumentException("negative window " + window);
+        if (unit == null) throw new IllegalArgumentException("null unit");
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    @Override
+    protected boolean matchesSafely(List<? extends TimedActivity> activity) {
+        Long span = span(activity);
+        return span != null && span <= windowNanos;
+    }
+
+    @Override
+    public void describeMismatchSafely(List<? extends TimedActivity> activity, Description description) {
+        Long span = span(activity);
+        if (span == null) {
+            description.appendText("activity without nano times was recorded: " + activity);
+        } else {
+            description.appendText(activity.size() + " activities spanned " + span + "ns");
+        }
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText("Expected activity to be executed within " + windowNanos + "ns");
+    }
+
+    /*
+    From the earliest received to the latest responded, or received if it wasn't responded to, null if
+    any activity has no nano times
+     */
+    private static Long span(List<? extends TimedActivity> activity) {
+        if (activity.isEmpty()) {
+            return 0L;
+        }
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (TimedActivity each : activity) {
+            Long received = each.getReceivedNanos();
+            if (received == null) {
+                return null;
+            }
+            Long finished = each.getRespondedNanos() != null ? each.getRespondedNanos() : received;
+            first = Math.min(first, received);
+            last = Math.max(last, finished);
+        }
+        return last - first;
+    }
+}
@@ -18,6 +18,8 @@ package org.scassandra.matchers;
 import org.scassandra.http.client.PreparedStatementExecution;
 import org.scassandra.http.client.Query;
 
+import java.util.concurrent.TimeUnit;
+
 public class Matchers {
 
     public static QueryMatcher containsQuery(Query query) {
@@ -28,4 +30,41 @@ public class Matchers {
         return new PreparedStatementMatcher(query);
     }
 
+    /**
+     * Matches recorded queries, executions or connections that were all received and answered within the
+     * window, for example assertThat(activityClient.retrieveQueries(), executedWithin(100, MILLISECONDS)).
+     * Doesn't match activity recorded without nano times.
+     */
+    public static ExecutedWithinMatcher executedWithin(long window, TimeUnit unit) {
+        return new ExecutedWithinMatcher(window, unit);
+    }
+
+    /**
+     * For perf regression tests, for example
+     * assertThat(ActivityAnalyser.analyse(activityClient, 1, SECONDS), peakConcurrencyWithin(poolSize, maxRequestsPerConnection)).
+     * Matches if no connection had more than maxRequestsPerConnection requests in flight and there were
+     * never more than poolSize * maxRequestsPerConnection in flight in total. Doesn't match activity
+     * recorded without nano times.
+     */
+    public static ConcurrencyMatcher peakConcurrencyWithin(int poolSize, int maxRequestsPerConnection) {
+        return new ConcurrencyMatcher(poolSize, maxRequestsPerConnection);
+    }
+
+    /**
+     * Matches an analysis whose busiest window had no more than the given requests per second.
+     * Doesn't match activity recorded without nano times.
+     */
+    public static ThroughputMatcher peakRequestsPerSecondAtMost(double requestsPerSecond) {
+        return new ThroughputMatcher(requestsPerSecond);
+    }
+
+    /**
+     * For failing builds that introduce hot unprepared statements, for example
+     * assertThat(activityClient.retrieveQueries(), noUnpreparedStatementsExecutedMoreThan(10)).
+     * Doesn't match if simple queries of the same shape were executed more than the threshold with
+     * different literals, and the mismatch suggests the statements to prepare.
+     */
+    public static UnpreparedStatementMatcher noUnpreparedStatementsExecutedMoreThan(int threshold) {
+        return new UnpreparedStatementMatcher(threshold);
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.scassandra.matchers;
 
+import com.google.common.base.Function;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeMatcher;
 import org.scassandra.cql.CqlType;
@@ -38,10 +39,14 @@ public class PreparedStatementMatcher extends TypeSafeMatcher<List<PreparedState
 
     @Override
     public void describeMismatchSafely(List<PreparedStatementExecution> preparedStatementExecutions, Description description) {
-        description.appendText("the following prepared statements were executed: ");
-        for (PreparedStatementExecution preparedStatement : preparedStatementExecutions) {
-            description.appendText("\n" + preparedStatement);
-        }
+        description.appendDescriptionOf(new RecordedActivityDescription<PreparedStatementExecution>("prepared statements",
+                preparedStatementExecutions, expectedPreparedStatementExecution.getPreparedStatementText(),
+                new Function<PreparedStatementExecution, String>() {
+                    @Override
+                    public String apply(PreparedStatementExecution input) {
+                        return input.getPreparedStatementText();
+                    }
+                }));
     }
 
     @Override
@@ -15,6 +15,7 @@
  */
 package org.scassandra.matchers;
 
+import com.google.common.base.Function;
 import org.hamcrest.Description;
 import org.hamcrest.TypeSafeMatcher;
 import org.scassandra.http.client.Query;
@@ -37,10 +38,12 @@ class QueryMatcher extends TypeSafeMatcher<List<Query>> {
 
     @Override
     public void describeMismatchSafely(List<Query> actual, Description description) {
-        description.appendText("the following queries were executed: ");
-        for (Query query : actual) {
-            description.appendText("\n" + query);
-        }
+        description.appendDescriptionOf(new RecordedActivityDescription<Query>("queries", actual, query.getQuery(), new Function<Query, String>() {
+            @Override
+            public String apply(Query input) {
+                return input.getQuery();
+            }
+        }));
     }
 
     @Override
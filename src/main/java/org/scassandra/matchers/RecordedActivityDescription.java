@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import com.google.common.base.Function;
+import org.hamcrest.Description;
+import org.hamcrest.SelfDescribing;
+
+import java.util.*;
+
+/**
+ * Describes the activity recorded by Scassandra when an expectation isn't met without appending every
+ * recorded entry. The description contains the number of entries, the statements closest to the expected
+ * one by edit distance and the most executed statements.
+ *
+ * Nothing is computed until Hamcrest asks for the description and the result is capped at
+ * {@link #MAX_CHARACTERS} characters.
+ */
+class RecordedActivityDescription<T> implements SelfDescribing {
+
+    static final int CLOSEST_CANDIDATES = 5;
+    static final int MOST_EXECUTED = 10;
+    static final int MAX_CHARACTERS = 8192;
+    static final int MAX_ENTRY_CHARACTERS = 512;
+    static final int MAX_COMPARED_CHARACTERS = 256;
+
+    private final String activityName;
+    private final List<T> recorded;
+    private final String expectedStatement;
+    private final Function<T, String> statementOf;
+
+    RecordedActivityDescription(String activityName, List<T> recorded, String expectedStatement, Function<T, String> statementOf) {
+        this.activityName = activityName;
+        this.recorded = recorded;
+        this.expectedStatement = expectedStatement == null ? "" : expectedStatement;
+        this.statementOf = statementOf;
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText(render());
+    }
+
+    String render() {
+        if (recorded.isEmpty()) {
+            return "no " + activityName + " were executed";
+        }
+
+        Map<String, Group<T>> groups = new HashMap<String, Group<T>>();
+        for (T entry : recorded) {
+            String statement = statementOf.apply(entry);
+            Group<T> group = groups.get(statement);
+            if (group == null) {
+                group = new Group<T>(statement, entry);
+                groups.put(statement, group);
+            }
+            group.count++;
+        }
+
+        CappedBuilder text = new CappedBuilder(MAX_CHARACTERS);
+        text.append(recorded.size()).append(" ").append(activityName).append(" were executed (")
+                .append(groups.size()).append(" distinct statements)");
+
+        text.append("\nclosest to the expected statement:");
+        for (Group<T> group : closest(groups.values())) {
+            text.append("\n  [distance ").append(group.distance).append(", executed ").append(group.count).append(" times] ")
+                    .append(truncate(String.valueOf(group.example), MAX_ENTRY_CHARACTERS));
+        }
+
+        text.append("\nmost executed statements:");
+        for (Group<T> group : mostExecuted(groups.values())) {
+            text.append("\n  ").append(group.count).append(" x ")
+                    .append(truncate(group.statement, MAX_ENTRY_CHARACTERS));
+        }
+        if (groups.size() > MOST_EXECUTED) {
+            text.append("\n  ... and ").append(groups.size() - MOST_EXECUTED).append(" other statements");
+        }
+        return text.toString();
+    }
+
+    private List<Group<T>> closest(Collection<Group<T>> groups) {
+        // max-heap on distance so the furthest of the current candidates is evicted first
+        PriorityQueue<Group<T>> candidates = new PriorityQueue<Group<T>>(CLOSEST_CANDIDATES + 1, new Comparator<Group<T>>() {
+            @Override
+            public int compare(Group<T> o1, Group<T> o2) {
+                return o1.distance != o2.distance ? o2.distance - o1.distance : o1.count - o2.count;
+            }
+        });
+        for (Group<T> group : groups) {
+            // once there are enough candidates only statements at most as far as the furthest one can get in
+            int limit = candidates.size() < CLOSEST_CANDIDATES ? Integer.MAX_VALUE : candidates.peek().distance;
+            group.distance = editDistance(expectedStatement, group.statement, limit);
+            if (group.distance > limit) {
+                continue;
+            }
+            candidates.add(group);
+            if (candidates.size() > CLOSEST_CANDIDATES) {
+                candidates.poll();
+            }
+        }
+        List<Group<T>> result = new ArrayList<Group<T>>(candidates);
+        Collections.sort(result, Collections.reverseOrder(candidates.comparator()));
+        return result;
+    }
+
+    private List<Group<T>> mostExecuted(Collection<Group<T>> groups) {
+        Comparator<Group<T>> byCount = new Comparator<Group<T>>() {
+            @Override
+            public int compare(Group<T> o1, Group<T> o2) {
+                return o1.count - o2.count;
+            }
+        };
+        PriorityQueue<Group<T>> top = new PriorityQueue<Group<T>>(MOST_EXECUTED + 1, byCount);
+        for (Group<T> group : groups) {
+            top.add(group);
+            if (top.size() > MOST_EXECUTED) {
+                top.poll();
+            }
+        }
+        List<Group<T>> result = new ArrayList<Group<T>>(top);
+        Collections.sort(result, Collections.reverseOrder(byCount));
+        return result;
+    }
+
+    static int editDistance(String expected, String actual) {
+        return editDistance(expected, actual, Integer.MAX_VALUE);
+    }
+
+    /*
+    Levenshtein distance over at most MAX_COMPARED_CHARACTERS of each statement so that a handful
+    of very long statements can't make describing a failure quadratic in their length. Comparison stops
+    as soon as the distance is known to be over the limit, returning limit + 1, so that scoring every one
+    of a large number of distinct statements stays cheap once close candidates have been found.
+     */
+    static int editDistance(String expected, String actual, int limit) {
+        String a = expected.length() > MAX_COMPARED_CHARACTERS ? expected.substring(0, MAX_COMPARED_CHARACTERS) : expected;
+        String b = actual == null ? "" : actual;
+        b = b.length() > MAX_COMPARED_CHARACTERS ? b.substring(0, MAX_COMPARED_CHARACTERS) : b;
+        int overLimit = limit == Integer.MAX_VALUE ? limit : limit + 1;
+        if (Math.abs(a.length() - b.length()) > limit) {
+            return overLimit;
+        }
+
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            // distances never decrease from one row to the next
+            if (rowMinimum > limit) {
+                return overLimit;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static String truncate(String text, int maxCharacters) {
+        if (text == null || text.length() <= maxCharacters) {
+            return text;
+        }
+        return text.substring(0, maxCharacters) + "...";
+    }
+
+    private static final class Group<T> {
+        private final String statement;
+        private final T example;
+        private int count;
+        private int distance;
+
+        private Group(String statement, T example) {
+            this.statement = statement;
+            this.example = example;
+        }
+    }
+
+    private static final class CappedBuilder {
+        private static final String TRUNCATED = "\n... (description truncated)";
+
+        private final StringBuilder builder = new StringBuilder();
+        private final int maxCharacters;
+        private boolean truncated = false;
+
+        private CappedBuilder(int maxCharacters) {
+            this.maxCharacters = maxCharacters;
+        }
+
+        CappedBuilder append(Object value) {
+            if (truncated) {
+                return this;
+            }
+            String text = String.valueOf(value);
+            int remaining = maxCharacters - builder.length();
+            if (text.length() > remaining) {
+                builder.append(text, 0, Math.max(remaining, 0)).append(TRUNCATED);
+                truncated = true;
+            } else {
+                builder.append(text);
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return builder.toString();
+        }
+    }
+}
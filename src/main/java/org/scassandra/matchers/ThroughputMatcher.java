@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+import org.scassandra.analysis.ActivityAnalysis;
+
+/**
+ * Matches an analysis whose busiest window had no more than the given requests per second. Doesn't match
+ * an analysis of no activity or of activity recorded without nano times.
+ */
+class ThroughputMatcher extends TypeSafeMatcher<ActivityAnalysis> {
+
+    private final double requestsPerSecond;
+
+    ThroughputMatcher(double requestsPerSecond) {
+        if (requestsPerSecond < 0) throw new IllegalArgumentException("negative requests per second " + requestsPerSecond);
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    @Override
+    protected boolean matchesSafely(ActivityAnalysis analysis) {
+        // the peak is only worked out from timed activity, so it says nothing when any is untimed
+        return analysis.getAnalysed() > 0 && analysis.getUntimed() == 0
+                && analysis.getPeakRequestsPerSecond() <= requestsPerSecond;
+    }
+
+    @Override
+    public void describeMismatchSafely(ActivityAnalysis analysis, Description description) {
+        if (analysis.getAnalysed() == 0) {
+            description.appendText("no activity was analysed");
+            return;
+        }
+        if (analysis.getUntimed() > 0) {
+            description.appendText(analysis.getUntimed() + " of " + analysis.getAnalysed()
+                    + " activities were recorded without nano times so throughput is unknown");
+            return;
+        }
+        description.appendText("peak was " + analysis.getPeakRequestsPerSecond() + " requests per second, requests per window "
+                + analysis.getRequestsPerWindow());
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText("Expected at most " + requestsPerSecond + " requests per second");
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.Description;
+import org.hamcrest.TypeSafeMatcher;
+import org.scassandra.analysis.PreparationCandidate;
+import org.scassandra.analysis.UnpreparedStatements;
+import org.scassandra.http.client.Query;
+
+import java.util.List;
+
+/**
+ * Matches recorded queries that have no statement shape executed more than the threshold with different
+ * literals, describing the statements to prepare if there are.
+ */
+class UnpreparedStatementMatcher extends TypeSafeMatcher<List<Query>> {
+
+    private final int threshold;
+    private final UnpreparedStatements unpreparedStatements;
+
+    UnpreparedStatementMatcher(int threshold) {
+        this.threshold = threshold;
+        this.unpreparedStatements = new UnpreparedStatements(threshold);
+    }
+
+    @Override
+    protected boolean matchesSafely(List<Query> queries) {
+        return unpreparedStatements.candidates(queries).isEmpty();
+    }
+
+    @Override
+    public void describeMismatchSafely(List<Query> queries, Description description) {
+        description.appendText("these should be prepared:");
+        for (PreparationCandidate candidate : unpreparedStatements.candidates(queries)) {
+            description.appendText("\n  " + candidate.getSuggestedStatement() + " executed " + candidate.getExecutions()
+                    + " times as " + candidate.getDistinctStatements() + " statements such as " + candidate.getExamples().get(0));
+        }
+    }
+
+    @Override
+    public void describeTo(Description description) {
+        description.appendText("Expected no unprepared statement to be executed more than " + threshold + " times with different literals");
+    }
+}
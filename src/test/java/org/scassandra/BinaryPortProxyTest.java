@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scassandra.http.client.Connection;
+import org.scassandra.http.client.ConnectionPrime;
+import org.scassandra.http.client.DelayDistribution;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.*;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BinaryPortProxyTest {
+
+    private static final int STARTUP = 0x01;
+    private static final int READY = 0x02;
+    private static final int OPTIONS = 0x05;
+    private static final int QUERY = 0x07;
+    private static final int RESULT = 0x08;
+
+    private ServerSocket server;
+    private BinaryPortProxy underTest;
+    private Socket client;
+    private int proxyPort;
+
+    @Before
+    public void setup() throws Exception {
+        server = new ServerSocket();
+        server.bind(new InetSocketAddress("127.0.0.1", 0));
+        Thread answering = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                answer();
+            }
+        });
+        answering.setDaemon(true);
+        answering.start();
+
+        proxyPort = freePort();
+        underTest = new BinaryPortProxy("127.0.0.1", proxyPort);
+        underTest.start("127.0.0.1", server.getLocalPort());
+        client = new Socket("127.0.0.1", proxyPort);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        underTest.stop();
+        server.close();
+    }
+
+    @Test
+    public void forwardsRequestsAndResponses() throws Exception {
+        send(QUERY, 1);
+
+        BinaryPortProxy.Frame response = receive();
+
+        assertEquals(RESULT, response.opcode());
+        assertEquals(1, response.stream());
+    }
+
+    @Test
+    public void countsAnsweredExecutionsOnly() throws Exception {
+        send(OPTIONS, 1);
+        send(QUERY, 2);
+        send(QUERY, 3);
+        receive();
+        receive();
+        receive();
+
+        assertEquals(2, underTest.executionsAnswered());
+    }
+
+    @Test
+    public void delaysResponses() throws Exception {
+        underTest.setResponseDelay(DelayDistribution.uniform(200, 200));
+        long start = System.nanoTime();
+
+        send(QUERY, 1);
+        receive();
+
+        assertTrue(System.nanoTime() - start >= 200000000L);
+    }
+
+    @Test
+    public void delayedResponsesKeepTheirOrder() throws Exception {
+        underTest.setResponseDelay(DelayDistribution.uniform(0, 100));
+
+        for (int stream = 0; stream < 20; stream++) {
+            send(QUERY, stream);
+        }
+
+        for (int stream = 0; stream < 20; stream++) {
+            assertEquals(stream, receive().stream());
+        }
+    }
+
+    @Test
+    public void delayCanBeRemoved() throws Exception {
+        underTest.setResponseDelay(DelayDistribution.uniform(1000, 1000));
+        underTest.setResponseDelay(null);
+        long start = System.nanoTime();
+
+        send(QUERY, 1);
+        receive();
+
+        assertTrue(System.nanoTime() - start < 1000000000L);
+    }
+
+    @Test
+    public void suspendedPortClosesConnectionsAndRefusesNewOnes() throws Exception {
+        // a connection the proxy hasn't accepted yet is reset rather than closed
+        send(QUERY, 1);
+        receive();
+        underTest.stop();
+
+        assertEquals(-1, client.getInputStream().read());
+        try {
+            new Socket("127.0.0.1", proxyPort);
+            fail("Expected the connection to be refused");
+        } catch (ConnectException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void resumedPortAcceptsConnections() throws Exception {
+        underTest.stop();
+        underTest.start("127.0.0.1", server.getLocalPort());
+        client = new Socket("127.0.0.1", proxyPort);
+
+        send(QUERY, 1);
+
+        assertEquals(1, receive().stream());
+    }
+
+    @Test(expected = SocketException.class)
+    public void resetConnectionsResetsClients() throws Exception {
+        send(QUERY, 1);
+        receive();
+
+        underTest.resetConnections();
+
+        client.getInputStream().read();
+    }
+
+    @Test
+    public void acceptsConnectionsAfterReset() throws Exception {
+        underTest.resetConnections();
+        client = new Socket("127.0.0.1", proxyPort);
+
+        send(QUERY, 1);
+
+        assertEquals(1, receive().stream());
+    }
+
+    @Test
+    public void recordsAcceptedConnections() throws Exception {
+        waitForConnectionOutcomes(1);
+
+        List<Connection> outcomes = underTest.connectionOutcomes();
+
+        assertEquals(1, outcomes.size());
+        assertEquals(Connection.SUCCESS, outcomes.get(0).getResult());
+        assertNotNull(outcomes.get(0).getConnectionId());
+        assertNotNull(outcomes.get(0).getReceivedAt());
+        assertNotNull(outcomes.get(0).getReceivedNanos());
+    }
+
+    @Test
+    public void resetsConnectionsOverMaxConnections() throws Exception {
+        underTest.setConnectionPrime(ConnectionPrime.builder().withMaxConnections(1).build());
+        Socket second = new Socket("127.0.0.1", proxyPort);
+
+        try {
+            second.getInputStream().read();
+            fail("Expected the connection to be reset");
+        } catch (SocketException e) {
+            // expected
+        } finally {
+            second.close();
+        }
+        waitForConnectionOutcomes(2);
+        assertEquals(Connection.MAX_CONNECTIONS, underTest.connectionOutcomes().get(1).getResult());
+    }
+
+    @Test
+    public void refusesConnections() throws Exception {
+        underTest.setConnectionPrime(ConnectionPrime.builder().withRefusalProbability(1).build());
+        new Socket("127.0.0.1", proxyPort).close();
+
+        waitForConnectionOutcomes(2);
+
+        Connection refused = underTest.connectionOutcomes().get(1);
+        assertEquals(Connection.REFUSED, refused.getResult());
+        assertNotNull(refused.getServiceTimeNanos());
+    }
+
+    @Test
+    public void delaysHandshake() throws Exception {
+        underTest.setConnectionPrime(ConnectionPrime.builder().withHandshakeDelay(200).build());
+        client = new Socket("127.0.0.1", proxyPort);
+        long start = System.nanoTime();
+
+        send(STARTUP, 1);
+        receive();
+
+        assertTrue(System.nanoTime() - start >= 200000000L);
+        assertEquals(Long.valueOf(200), underTest.connectionOutcomes().get(1).getHandshakeDelay());
+    }
+
+    @Test
+    public void onlyTheHandshakeIsDelayed() throws Exception {
+        underTest.setConnectionPrime(ConnectionPrime.builder().withHandshakeDelay(1000).build());
+        client = new Socket("127.0.0.1", proxyPort);
+        send(STARTUP, 1);
+        receive();
+        long start = System.nanoTime();
+
+        send(QUERY, 2);
+        receive();
+
+        assertTrue(System.nanoTime() - start < 1000000000L);
+    }
+
+    private void waitForConnectionOutcomes(int outcomes) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && underTest.connectionOutcomes().size() < outcomes; attempt++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void send(int opcode, int stream) throws IOException {
+        OutputStream out = client.getOutputStream();
+        out.write(new byte[]{0x02, 0, (byte) stream, (byte) opcode, 0, 0, 0, 1, 42});
+        out.flush();
+    }
+
+    private BinaryPortProxy.Frame receive() throws IOException {
+        return BinaryPortProxy.Frame.read(new DataInputStream(client.getInputStream()));
+    }
+
+    /*
+    Answers each frame with an empty result on the same stream
+     */
+    private void answer() {
+        try {
+            while (true) {
+                final Socket connection = server.accept();
+                Thread answering = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        answer(connection);
+                    }
+                });
+                answering.setDaemon(true);
+                answering.start();
+            }
+        } catch (IOException e) {
+            // closed by tearDown
+        }
+    }
+
+    private void answer(Socket connection) {
+        try {
+            DataInputStream in = new DataInputStream(connection.getInputStream());
+            OutputStream out = connection.getOutputStream();
+            BinaryPortProxy.Frame request;
+            while ((request = BinaryPortProxy.Frame.read(in)) != null) {
+                int opcode = request.opcode() == STARTUP ? READY : RESULT;
+                out.write(new byte[]{(byte) 0x82, 0, (byte) request.stream(), (byte) opcode, 0, 0, 0, 0});
+                out.flush();
+            }
+        } catch (IOException e) {
+            // closed by the proxy
+        }
+    }
+
+    private static int freePort() throws IOException {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import com.google.common.collect.ImmutableSortedMap;
+import org.HdrHistogram.Histogram;
+import org.junit.Test;
+import org.scassandra.http.client.PreparedStatementExecution;
+import org.scassandra.http.client.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ActivityAnalyserTest {
+
+    private static final long MS = 1000000;
+
+    private final ActivityAnalyser underTest = new ActivityAnalyser(100, MILLISECONDS);
+
+    @Test
+    public void countsRequestsPerWindowLeavingOutEmptyWindows() throws Exception {
+        underTest.record(query("select", "a", 0, 1));
+        underTest.record(query("select", "a", 50 * MS, 50 * MS + 1));
+        underTest.record(query("select", "a", 250 * MS, 250 * MS + 1));
+
+        ActivityAnalysis analysis = underTest.analysis();
+
+        assertEquals(ImmutableSortedMap.of(0L, 2L, 2L, 1L), analysis.getRequestsPerWindow());
+        assertEquals(20.0, analysis.getPeakRequestsPerSecond(), 0.001);
+    }
+
+    @Test
+    public void peakConcurrencyPerConnection() throws Exception {
+        underTest.record(query("select", "a", 0, 30 * MS));
+        underTest.record(query("select", "a", 10 * MS, 20 * MS));
+        underTest.record(query("select", "b", 15 * MS, 40 * MS));
+        underTest.record(query("select", "a", 25 * MS, 26 * MS));
+
+        ActivityAnalysis analysis = underTest.analysis();
+
+        assertEquals(Integer.valueOf(2), analysis.getPeakConcurrencyByConnection().get("a"));
+        assertEquals(Integer.valueOf(1), analysis.getPeakConcurrencyByConnection().get("b"));
+        assertEquals(2, analysis.getPeakConcurrencyPerConnection());
+        assertEquals(3, analysis.getPeakConcurrency());
+    }
+
+    @Test
+    public void interArrivalTimesPerStatement() throws Exception {
+        underTest.record(query("select a", "a", 0, 1));
+        underTest.record(query("select b", "a", 5 * MS, 5 * MS + 1));
+        underTest.record(query("select a", "a", 10 * MS, 10 * MS + 1));
+        underTest.record(query("select a", "a", 30 * MS, 30 * MS + 1));
+
+        ActivityAnalysis analysis = underTest.analysis();
+
+        Histogram histogram = analysis.getInterArrivalTimes().get("select a");
+        assertEquals(2, histogram.getTotalCount());
+        assertEquals(20 * MS, histogram.getMaxValue(), 20 * MS / 1000.0);
+        assertNull(analysis.getInterArrivalTimes().get("select b"));
+    }
+
+    @Test
+    public void activityWithoutNanoTimesIsCountedButLeftOut() throws Exception {
+        underTest.record(Query.builder().withQuery("select").build());
+        underTest.record(query("select", "a", 0, 1));
+
+        ActivityAnalysis analysis = underTest.analysis();
+
+        assertEquals(2, analysis.getAnalysed());
+        assertEquals(1, analysis.getUntimed());
+        assertEquals(ImmutableSortedMap.of(0L, 1L), analysis.getRequestsPerWindow());
+    }
+
+    @Test
+    public void mergesQueriesAndExecutionsInTheOrderReceived() throws Exception {
+        PreparedStatementExecution execution = PreparedStatementExecution.builder()
+                .withPreparedStatementText("select")
+                .withConnectionId("a")
+                .withReceivedNanos(5 * MS)
+                .withRespondedNanos(6 * MS)
+                .build();
+
+        ActivityAnalysis analysis = ActivityAnalyser.analyse(
+                Arrays.asList(query("select", "a", 0, 1), query("select", "a", 12 * MS, 13 * MS)),
+                Arrays.asList(execution), 100, MILLISECONDS);
+
+        assertEquals(3, analysis.getAnalysed());
+        assertEquals(7 * MS, analysis.getInterArrivalTimes().get("select").getMaxValue(), 7 * MS / 1000.0);
+    }
+
+    @Test
+    public void nothingToAnalyse() throws Exception {
+        ActivityAnalysis analysis = ActivityAnalyser.analyse(Collections.<Query>emptyList(),
+                Collections.<PreparedStatementExecution>emptyList(), 1, MILLISECONDS);
+
+        assertEquals(0, analysis.getRequestsPerWindow().size());
+        assertEquals(0.0, analysis.getPeakRequestsPerSecond(), 0);
+        assertEquals(0, analysis.getPeakConcurrency());
+    }
+
+    @Test
+    public void aLongGapBetweenRequestsDoesNotAddWindows() throws Exception {
+        ActivityAnalyser analyser = new ActivityAnalyser(1, NANOSECONDS);
+        analyser.record(query("select", "a", 0, 1));
+        analyser.record(query("select", "a", Long.MAX_VALUE / 2, Long.MAX_VALUE / 2 + 1));
+
+        ActivityAnalysis analysis = analyser.analysis();
+
+        assertEquals(ImmutableSortedMap.of(0L, 1L, Long.MAX_VALUE / 2, 1L), analysis.getRequestsPerWindow());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowMustBePositive() throws Exception {
+        new ActivityAnalyser(0, MILLISECONDS);
+    }
+
+    private static Query query(String text, String connection, long receivedNanos, long respondedNanos) {
+        return Query.builder()
+                .withQuery(text)
+                .withConnectionId(connection)
+                .withReceivedNanos(receivedNanos)
+                .withRespondedNanos(respondedNanos)
+                .build();
+    }
+}
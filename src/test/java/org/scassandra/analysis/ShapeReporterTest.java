@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.junit.Test;
+import org.scassandra.http.client.PreparedStatementExecution;
+import org.scassandra.http.client.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShapeReporterTest {
+
+    private final ShapeReporter underTest = new ShapeReporter(2);
+
+    @Test
+    public void countsShapesAcrossTests() throws Exception {
+        underTest.record("first", queries("select * from people where id = ", 2), executions("select * from people where id = ?", 1));
+        underTest.record("second", queries("select * from people where id = ", 1), Collections.<PreparedStatementExecution>emptyList());
+
+        ShapeCount shape = underTest.report().getShapes().get(0);
+
+        assertEquals("select * from people where id = ?", shape.getShape());
+        assertEquals(4, shape.getExecutions());
+        assertEquals(3, shape.getSimpleExecutions());
+        assertEquals(1, shape.getPreparedExecutions());
+        assertEquals(2, shape.getTests());
+    }
+
+    @Test
+    public void shapesExecutedMoreThanTheThresholdInOneTestAreHot() throws Exception {
+        underTest.record("n plus one", queries("select * from orders where customer = ", 3), noExecutions());
+        underTest.record("spread out", queries("select * from items where id = ", 2), noExecutions());
+        underTest.record("also spread out", queries("select * from items where id = ", 2), noExecutions());
+
+        List<ShapeCount> hotShapes = underTest.report().getHotShapes();
+
+        assertEquals(1, hotShapes.size());
+        assertEquals("n plus one", hotShapes.get(0).getTest());
+        assertEquals("select * from orders where customer = ?", hotShapes.get(0).getShape());
+        assertEquals(3, hotShapes.get(0).getExecutions());
+    }
+
+    @Test
+    public void topShapesAreTheMostExecuted() throws Exception {
+        underTest.record("test", queries("select * from a where id = ", 1), noExecutions());
+        underTest.record("test", queries("select * from b where id = ", 3), noExecutions());
+
+        List<ShapeCount> top = underTest.report().getTopShapes(1);
+
+        assertEquals(1, top.size());
+        assertEquals("select * from b where id = ?", top.get(0).getShape());
+    }
+
+    @Test
+    public void jsonSummary() throws Exception {
+        underTest.record("test", queries("select * from a where id = ", 3), noExecutions());
+
+        String json = underTest.report().toJson(10);
+
+        assertEquals("{\"threshold\":2,\"shapes\":1,\"topShapes\":[{\"shape\":\"select * from a where id = ?\",\"executions\":3," +
+                "\"simple\":3,\"prepared\":0,\"tests\":1}],\"hotShapes\":[{\"test\":\"test\",\"shape\":\"select * from a where id = ?\"," +
+                "\"executions\":3}]}", json);
+    }
+
+    @Test
+    public void htmlSummaryIsEscaped() throws Exception {
+        underTest.record("test", queries("select * from a where id > ", 3), noExecutions());
+
+        String html = underTest.report().toHtml(10);
+
+        assertTrue(html.contains("<code>select * from a where id &gt; ?</code>"));
+    }
+
+    private static List<Query> queries(String prefix, int count) {
+        List<Query> queries = new ArrayList<Query>();
+        for (int i = 0; i < count; i++) {
+            queries.add(Query.builder().withQuery(prefix + i).build());
+        }
+        return queries;
+    }
+
+    private static List<PreparedStatementExecution> executions(String text, int count) {
+        return Collections.nCopies(count, PreparedStatementExecution.builder().withPreparedStatementText(text).build());
+    }
+
+    private static List<PreparedStatementExecution> noExecutions() {
+        return Collections.emptyList();
+    }
+}
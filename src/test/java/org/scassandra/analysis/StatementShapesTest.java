@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class StatementShapesTest {
+
+    private final StatementShapes underTest = new StatementShapes();
+
+    @Test
+    public void literalsBecomeMarkers() throws Exception {
+        assertEquals("select * from ks.people where name = ? and age > ?",
+                underTest.shapeOf("SELECT * FROM ks.people WHERE name = 'Chris''s' AND age > -15;"));
+    }
+
+    @Test
+    public void statementsThatOnlyDifferByLiteralsHaveTheSameShape() throws Exception {
+        assertEquals(underTest.shapeOf("select * from people where name = 'Chris' and age > 15"),
+                underTest.shapeOf("select  *  from PEOPLE where name='Bob' and age>3"));
+    }
+
+    @Test
+    public void uuidsBlobsAndCollectionsBecomeOneMarker() throws Exception {
+        assertEquals("insert into t (id, data, tags, m) values (?, ?, ?, ?)",
+                underTest.shapeOf("insert into t (id, data, tags, m) values (123e4567-e89b-12d3-a456-426655440000, 0xCAFE, {'a', 'b'}, {'k': 1.5e3})"));
+    }
+
+    @Test
+    public void inListsBecomeOneMarker() throws Exception {
+        assertEquals(underTest.shapeOf("select * from t where id in (1, 2, 3)"), underTest.shapeOf("select * from t where id in (4)"));
+        assertEquals("select * from t where id in ?", underTest.shapeOf("select * from t where id IN (4)"));
+    }
+
+    @Test
+    public void keepsFieldNamesElementAccessAndOperators() throws Exception {
+        assertEquals("update t set m[?] = ?, c = c - ?, u = {name: ?} where id = ?",
+                underTest.shapeOf("update t set m['key'] = 1, c = c - 1, u = {name: 'x'} where id = 5"));
+    }
+
+    @Test
+    public void bindMarkersAndQuotedIdentifiersAreKept() throws Exception {
+        assertEquals("select \"Name\" from t where k = ? and v = ? limit ?",
+                underTest.shapeOf("select \"Name\" from t where k = :key and v = ? limit 10"));
+    }
+
+    @Test
+    public void shapesAreCached() throws Exception {
+        String statement = "select * from people where name = 'Chris'";
+
+        assertSame(underTest.shapeOf(statement), underTest.shapeOf(statement));
+    }
+}
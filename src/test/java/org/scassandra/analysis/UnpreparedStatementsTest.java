@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.analysis;
+
+import org.junit.Test;
+import org.scassandra.http.client.Query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UnpreparedStatementsTest {
+
+    private final UnpreparedStatements underTest = new UnpreparedStatements(2);
+
+    @Test
+    public void shapesExecutedMoreThanTheThresholdWithDifferentLiteralsAreCandidates() throws Exception {
+        List<Query> queries = queries("select * from people where id = 1", "select * from people where id = 2",
+                "SELECT * FROM people WHERE id = 3", "select * from people where id = 4");
+
+        List<PreparationCandidate> candidates = underTest.candidates(queries);
+
+        assertEquals(1, candidates.size());
+        assertEquals("select * from people where id = ?", candidates.get(0).getSuggestedStatement());
+        assertEquals(4, candidates.get(0).getExecutions());
+        assertEquals(4, candidates.get(0).getDistinctStatements());
+        assertEquals(Arrays.asList("select * from people where id = 1", "select * from people where id = 2",
+                "SELECT * FROM people WHERE id = 3"), candidates.get(0).getExamples());
+    }
+
+    @Test
+    public void shapesExecutedUpToTheThresholdAreNotCandidates() throws Exception {
+        List<Query> queries = queries("select * from people where id = 1", "select * from people where id = 2");
+
+        assertTrue(underTest.candidates(queries).isEmpty());
+    }
+
+    @Test
+    public void statementsAlwaysExecutedWithTheSameTextAreNotCandidates() throws Exception {
+        List<Query> queries = queries("select * from system.local where key = 'local'", "select * from system.local where key = 'local'",
+                "select * from system.local where key = 'local'");
+
+        assertTrue(underTest.candidates(queries).isEmpty());
+    }
+
+    @Test
+    public void mostExecutedFirst() throws Exception {
+        List<Query> queries = queries("select * from a where id = 1", "select * from a where id = 2", "select * from a where id = 3",
+                "select * from b where id = 1", "select * from b where id = 2", "select * from b where id = 3", "select * from b where id = 4");
+
+        List<PreparationCandidate> candidates = underTest.candidates(queries);
+
+        assertEquals("select * from b where id = ?", candidates.get(0).getSuggestedStatement());
+        assertEquals("select * from a where id = ?", candidates.get(1).getSuggestedStatement());
+    }
+
+    private static List<Query> queries(String... statements) {
+        List<Query> queries = new ArrayList<Query>();
+        for (String statement : statements) {
+            queries.add(Query.builder().withQuery(statement).build());
+        }
+        return queries;
+    }
+}
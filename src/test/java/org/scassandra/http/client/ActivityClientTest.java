@@ -26,8 +26,11 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import static org.scassandra.cql.PrimitiveType.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 public class ActivityClientTest {
     private static final int PORT = 1235;
@@ -241,4 +244,36 @@ public class ActivityClientTest {
         verify(deleteRequestedFor(urlEqualTo(queryUrl)));
         verify(deleteRequestedFor(urlEqualTo(connectionUrl)));
     }
+
+    @Test
+    public void testRetrievalOfCompressedQueries() throws Exception {
+        //given
+        stubFor(get(urlEqualTo(queryUrl)).withHeader("Accept-Encoding", containing("gzip"))
+                .willReturn(aResponse().withHeader("Content-Encoding", "gzip")
+                        .withBody(gzip("[{\"query\":\"select * from people\",\"consistency\":\"TWO\"}]"))));
+        //when
+        List<Query> queries = underTest.retrieveQueries();
+        //then
+        assertEquals(Arrays.asList(Query.builder().withQuery("select * from people").withConsistency("TWO").build()), queries);
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        gzip.write(body.getBytes("UTF-8"));
+        gzip.close();
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testRetrievalOfTheOutcomeOfQueries() {
+        //given
+        stubFor(get(urlEqualTo(queryUrl)).willReturn(aResponse().withBody(
+                "[{\"query\":\"select * from people\",\"consistency\":\"TWO\",\"result\":\"read_request_timeout\"}]")));
+        //when
+        List<Query> queries = underTest.retrieveQueries();
+        //then
+        assertEquals("read_request_timeout", queries.get(0).getResult());
+        assertEquals(Query.builder().withQuery("select * from people").withConsistency("TWO").build(), queries.get(0));
+    }
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.scassandra.cql.CqlType;
+import org.scassandra.http.client.types.GsonCqlTypeDeserialiser;
+import org.scassandra.http.client.types.GsonCqlTypeSerialiser;
+import org.scassandra.http.client.types.GsonInetAddressSerialiser;
+
+import java.net.InetAddress;
+import java.util.*;
+
+import static org.scassandra.cql.PrimitiveType.*;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+/**
+ * Compares the parse and serialise throughput of Gson's reflective adapters with the streaming adapters
+ * registered by the clients. Not a test, run the main method.
+ */
+public class AdminTypeAdapterBenchmark {
+
+    private static final int WARM_UP_ITERATIONS = 20;
+    private static final int ITERATIONS = 50;
+    private static final int ENTRIES = 10000;
+
+    public static void main(String[] args) {
+        Gson reflective = new GsonBuilder()
+                .registerTypeAdapter(CqlType.class, new GsonCqlTypeSerialiser())
+                .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
+                .registerTypeAdapter(InetAddress.class, new GsonInetAddressSerialiser())
+                .enableComplexMapKeySerialization()
+                .create();
+        Gson streaming = new GsonBuilder()
+                .registerTypeAdapter(CqlType.class, new GsonCqlTypeSerialiser())
+                .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
+                .registerTypeAdapter(InetAddress.class, new GsonInetAddressSerialiser())
+                .registerTypeAdapterFactory(new AdminTypeAdapterFactory())
+                .enableComplexMapKeySerialization()
+                .create();
+
+        List<Map<String, ?>> rows = new ArrayList<Map<String, ?>>();
+        for (int i = 0; i < ENTRIES; i++) {
+            Map<String, Object> row = new HashMap<String, Object>();
+            row.put("id", i);
+            row.put("name", "name-" + i);
+            row.put("active", i % 2 == 0);
+            rows.add(row);
+        }
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withColumnTypes(column("id", INT), column("name", TEXT), column("active", BOOLEAN))
+                .withRows(rows)
+                .build();
+
+        StringBuilder executions = new StringBuilder("[");
+        for (int i = 0; i < ENTRIES; i++) {
+            if (i > 0) executions.append(',');
+            executions.append("{\"preparedStatementText\":\"insert into people(id, name) values (?, ?)\",\"consistency\":\"ONE\",")
+                    .append("\"variables\":[").append(i).append(",\"name-").append(i).append("\"],")
+                    .append("\"variableTypes\":[\"int\",\"map<text,list<int>>\"]}");
+        }
+        String executionsJson = executions.append(']').toString();
+
+        System.out.printf("serialise prime with %d rows   reflective %10.1f ops/s   streaming %10.1f ops/s%n", ENTRIES,
+                serialise(reflective, prime), serialise(streaming, prime));
+        System.out.printf("parse %d executions            reflective %10.1f ops/s   streaming %10.1f ops/s%n", ENTRIES,
+                parseReflectively(reflective, executionsJson), parse(streaming, executionsJson));
+    }
+
+    private static double serialise(Gson gson, PrimingRequest prime) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            gson.toJson(prime);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            gson.toJson(prime);
+        }
+        return opsPerSecond(start);
+    }
+
+    private static double parseReflectively(Gson gson, String json) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            gson.fromJson(json, (Class) PreparedStatementExecution[].class);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            gson.fromJson(json, (Class) PreparedStatementExecution[].class);
+        }
+        return opsPerSecond(start);
+    }
+
+    private static double parse(Gson gson, String json) {
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            gson.fromJson(json, AdminTypeAdapterFactory.PREPARED_STATEMENT_EXECUTION_LIST);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            gson.fromJson(json, AdminTypeAdapterFactory.PREPARED_STATEMENT_EXECUTION_LIST);
+        }
+        return opsPerSecond(start);
+    }
+
+    private static double opsPerSecond(long start) {
+        return ITERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+import org.scassandra.cql.CqlType;
+import org.scassandra.http.client.types.GsonCqlTypeDeserialiser;
+import org.scassandra.http.client.types.GsonCqlTypeSerialiser;
+import org.scassandra.http.client.types.GsonInetAddressSerialiser;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.scassandra.cql.ListType.list;
+import static org.scassandra.cql.MapType.map;
+import static org.scassandra.cql.PrimitiveType.*;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class AdminTypeAdapterFactoryTest {
+
+    private final Gson reflective = new GsonBuilder()
+            .registerTypeAdapter(CqlType.class, new GsonCqlTypeSerialiser())
+            .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
+            .registerTypeAdapter(InetAddress.class, new GsonInetAddressSerialiser())
+            .enableComplexMapKeySerialization()
+            .create();
+
+    private final Gson streaming = new GsonBuilder()
+            .registerTypeAdapter(CqlType.class, new GsonCqlTypeSerialiser())
+            .registerTypeAdapter(CqlType.class, new GsonCqlTypeDeserialiser())
+            .registerTypeAdapter(InetAddress.class, new GsonInetAddressSerialiser())
+            .registerTypeAdapterFactory(new AdminTypeAdapterFactory())
+            .enableComplexMapKeySerialization()
+            .create();
+
+    private final JsonParser parser = new JsonParser();
+
+    @Test
+    public void writesPrimingRequestsLikeGson() throws Exception {
+        PrimingRequest prime = PrimingRequest.preparedStatementBuilder()
+                .withQuery("select * from people where name = ?")
+                .withConsistency(PrimingRequest.Consistency.ONE, PrimingRequest.Consistency.LOCAL_QUORUM)
+                .withVariableTypes(TEXT)
+                .withColumnTypes(column("name", TEXT), column("scores", list(INT)), column("attributes", map(TEXT, TEXT)))
+                .withRows(ImmutableMap.of("name", "Chris", "scores", Arrays.asList(1, 2, 3), "attributes", ImmutableMap.of("a", "b"),
+                                "balance", new BigDecimal("1.5"), "address", InetAddress.getByName("127.0.0.1")),
+                        ImmutableMap.of("name", "Alex", "height", 1.7))
+                .withFixedDelay(100)
+                .withConfig(new ReadTimeoutConfig(1, 2, true))
+                .build();
+
+        assertEquals(parser.parse(reflective.toJson(prime)), parser.parse(streaming.toJson(prime)));
+    }
+
+    @Test
+    public void writesAndReadsDelayDistributionsLikeGson() throws Exception {
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withDelayDistribution(DelayDistribution.bimodal(
+                        DelayDistribution.logNormal(2, 0.5),
+                        DelayDistribution.percentiles().withPercentile(50, 10).withPercentile(99.9, 200).build(),
+                        0.05).withSeed(5))
+                .build();
+
+        String json = streaming.toJson(prime);
+
+        assertEquals(parser.parse(reflective.toJson(prime)), parser.parse(json));
+        assertEquals(prime.getThen(), streaming.fromJson(json, PrimingRequest.class).getThen());
+    }
+
+    @Test
+    public void writesAndReadsResultMixesAndSequencesLikeGson() throws Exception {
+        PrimingRequest mix = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResultMix(Outcome.outcome(PrimingRequest.Result.success).withWeight(98),
+                        Outcome.outcome(PrimingRequest.Result.read_request_timeout, new ReadTimeoutConfig(1, 2, false)).withWeight(2))
+                .build();
+        PrimingRequest sequence = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResultSequence(Outcome.outcome(PrimingRequest.Result.unavailable, new UnavailableConfig(2, 1)),
+                        Outcome.outcome(PrimingRequest.Result.write_request_timeout))
+                .build();
+
+        for (PrimingRequest prime : Arrays.asList(mix, sequence)) {
+            String json = streaming.toJson(prime);
+            assertEquals(parser.parse(reflective.toJson(prime)), parser.parse(json));
+            assertEquals(prime.getThen(), streaming.fromJson(json, PrimingRequest.class).getThen());
+        }
+    }
+
+    @Test
+    public void readsPrimingRequestsLikeGson() throws Exception {
+        String json = "[{\"when\":{\"query\":\"select * from people\",\"consistency\":[\"ONE\",\"TWO\"]}," +
+                "\"then\":{\"variable_types\":[\"text\"],\"rows\":[{\"name\":\"Chris\",\"age\":15,\"tags\":[\"a\",\"b\"]}]," +
+                "\"result\":\"success\",\"column_types\":{\"name\":\"text\",\"age\":\"int\",\"tags\":\"set<text>\"}," +
+                "\"fixedDelay\":50,\"config\":{\"error.alive\":\"1\"},\"unknown\":{\"nested\":[1,2]}}}," +
+                "{\"when\":{\"queryPattern\":\"select .*\"},\"then\":{\"result\":\"unavailable\"}}]";
+
+        List<PrimingRequest> expected = Arrays.asList((PrimingRequest[]) reflective.fromJson(json, (Class) PrimingRequest[].class));
+        List<PrimingRequest> actual = streaming.fromJson(json, AdminTypeAdapterFactory.PRIMING_REQUEST_LIST);
+
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void readsActivityLikeGson() throws Exception {
+        String queries = "[{\"query\":\"select * from people\",\"consistency\":\"TWO\"},{\"query\":\"select\"}]";
+        String connections = "[{\"result\":\"success\"}]";
+        String executions = "[{\"preparedStatementText\":\"insert into people(name, age) values (?, ?)\",\"consistency\":\"ONE\"," +
+                "\"variables\":[\"Chris\",15],\"variableTypes\":[\"varchar\",\"int\"]}]";
+
+        assertEquals(Arrays.asList((Query[]) reflective.fromJson(queries, (Class) Query[].class)),
+                streaming.fromJson(queries, AdminTypeAdapterFactory.QUERY_LIST));
+        assertEquals(Arrays.asList((Connection[]) reflective.fromJson(connections, (Class) Connection[].class)),
+                streaming.fromJson(connections, AdminTypeAdapterFactory.CONNECTION_LIST));
+        List<PreparedStatementExecution> actualExecutions = streaming.fromJson(executions, AdminTypeAdapterFactory.PREPARED_STATEMENT_EXECUTION_LIST);
+        assertEquals(Arrays.asList((PreparedStatementExecution[]) reflective.fromJson(executions, (Class) PreparedStatementExecution[].class)),
+                actualExecutions);
+        assertEquals(Arrays.<CqlType>asList(VARCHAR, INT), actualExecutions.get(0).getVariableTypes());
+    }
+
+    @Test
+    public void readsConnectionOutcomesLikeGson() throws Exception {
+        String json = "{\"result\":\"max_connections\",\"handshakeDelay\":250,\"connectionId\":\"127.0.0.1:51234\"," +
+                "\"receivedAt\":1413000000000,\"receivedNanos\":5000,\"respondedAt\":1413000000001,\"respondedNanos\":1005000}";
+
+        Connection expected = reflective.fromJson(json, Connection.class);
+        Connection actual = streaming.fromJson(json, Connection.class);
+
+        assertEquals(expected, actual);
+        assertEquals(expected.getHandshakeDelay(), actual.getHandshakeDelay());
+        assertEquals(expected.getConnectionId(), actual.getConnectionId());
+        assertEquals(expected.getReceivedAt(), actual.getReceivedAt());
+        assertEquals(json, streaming.toJson(actual));
+    }
+
+    @Test
+    public void readsActivityTimingLikeGson() throws Exception {
+        String timing = "\"connectionId\":\"127.0.0.1:51234\",\"receivedAt\":1413000000000,\"receivedNanos\":5000," +
+                "\"respondedAt\":1413000000001,\"respondedNanos\":1005000";
+        String query = "{\"query\":\"select * from people\",\"consistency\":\"ONE\"," + timing + "}";
+        String execution = "{\"preparedStatementText\":\"select * from people\",\"consistency\":\"ONE\",\"variables\":[]," + timing + "}";
+
+        Query expectedQuery = reflective.fromJson(query, Query.class);
+        Query actualQuery = streaming.fromJson(query, Query.class);
+        PreparedStatementExecution expectedExecution = reflective.fromJson(execution, PreparedStatementExecution.class);
+        PreparedStatementExecution actualExecution = streaming.fromJson(execution, PreparedStatementExecution.class);
+
+        assertEquals(expectedQuery.getConnectionId(), actualQuery.getConnectionId());
+        assertEquals(expectedQuery.getReceivedNanos(), actualQuery.getReceivedNanos());
+        assertEquals(expectedQuery.getRespondedAt(), actualQuery.getRespondedAt());
+        assertEquals(Long.valueOf(1000000), actualQuery.getServiceTimeNanos());
+        assertEquals(expectedExecution.getReceivedAt(), actualExecution.getReceivedAt());
+        assertEquals(expectedExecution.getRespondedNanos(), actualExecution.getRespondedNanos());
+        assertEquals(Long.valueOf(1000000), actualExecution.getServiceTimeNanos());
+        assertEquals(query, streaming.toJson(actualQuery));
+    }
+}
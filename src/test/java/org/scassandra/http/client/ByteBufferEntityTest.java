@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ByteBufferEntityTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final byte[] json = "{\"when\":{\"query\":\"select * from people\"}}".getBytes(UTF_8);
+
+    @Test
+    public void contentIsWhatIsWritten() throws Exception {
+        ByteBufferEntity underTest = new ByteBufferEntity(ByteBuffer.wrap(json));
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        underTest.writeTo(written);
+
+        assertArrayEquals(written.toByteArray(), ByteStreams.toByteArray(underTest.getContent()));
+    }
+
+    @Test
+    public void contentCanBeReadMoreThanOnce() throws Exception {
+        ByteBufferEntity underTest = new ByteBufferEntity(ByteBuffer.wrap(json));
+
+        InputStream first = underTest.getContent();
+        assertEquals('{', first.read());
+        assertEquals(json.length - 1, first.available());
+
+        assertArrayEquals(json, ByteStreams.toByteArray(underTest.getContent()));
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.scassandra.cql.PrimitiveType.*;
+import static org.scassandra.cql.SetType.set;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class ColumnarRowsTest {
+
+    @Test
+    public void rowsAreEqualToTheEquivalentMaps() throws Exception {
+        ColumnarRows underTest = ColumnarRows.builder(column("id", BIG_INT), column("name", TEXT), column("score", DOUBLE),
+                column("active", BOOLEAN), column("age", INT), column("tags", set(TEXT)))
+                .addRow(1L, "Chris", 1.5, true, 30, new HashSet<String>(Arrays.asList("a")))
+                .addRow(2L, "Alex", 2.5, false, null, null)
+                .build();
+
+        List<Map<String, ?>> expected = new ArrayList<Map<String, ?>>();
+        expected.add(ImmutableMap.<String, Object>builder().put("id", 1L).put("name", "Chris").put("score", 1.5)
+                .put("active", true).put("age", 30).put("tags", new HashSet<String>(Arrays.asList("a"))).build());
+        expected.add(ImmutableMap.of("id", 2L, "name", "Alex", "score", 2.5, "active", false));
+
+        assertEquals(expected, underTest);
+        assertEquals(expected.hashCode(), underTest.hashCode());
+    }
+
+    @Test
+    public void columnsCanBeFilledWithoutBoxing() throws Exception {
+        ColumnarRows.Builder builder = ColumnarRows.builder(column("id", BIG_INT), column("name", VARCHAR));
+        for (int i = 0; i < 1000; i++) {
+            builder.appendLong(0, i);
+            builder.append(1, "name-" + (i % 10));
+        }
+
+        ColumnarRows underTest = builder.build();
+
+        assertEquals(1000, underTest.size());
+        assertEquals(ImmutableMap.of("id", 999L, "name", "name-9"), underTest.get(999));
+    }
+
+    @Test
+    public void writesTheSameJsonAsTheEquivalentMaps() throws Exception {
+        ColumnarRows rows = ColumnarRows.builder(column("id", BIG_INT), column("name", TEXT), column("height", FLOAT))
+                .addRow(1L, "Chris", 1.7f)
+                .addRow(2L, null, 0.1f)
+                .build();
+        PrimingRequest columnar = PrimingRequest.queryBuilder().withQuery("select * from people").withRows(rows).build();
+        PrimingRequest maps = PrimingRequest.queryBuilder().withQuery("select * from people")
+                .withColumnTypes(column("id", BIG_INT), column("name", TEXT), column("height", FLOAT))
+                .withRows(ImmutableMap.of("id", 1L, "name", "Chris", "height", 1.7f), ImmutableMap.of("id", 2L, "height", 0.1f))
+                .build();
+        JsonCodec codec = new GsonJsonCodec();
+        StringWriter expected = new StringWriter();
+        StringWriter actual = new StringWriter();
+
+        codec.writePrimingRequest(maps, expected);
+        codec.writePrimingRequest(columnar, actual);
+
+        JsonParser parser = new JsonParser();
+        assertEquals(parser.parse(expected.toString()), parser.parse(actual.toString()));
+        assertEquals(maps, columnar);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsValuesOfTheWrongType() throws Exception {
+        ColumnarRows.builder(column("id", BIG_INT)).addRow("one");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void columnsMustHaveTheSameNumberOfValues() throws Exception {
+        ColumnarRows.builder(column("id", BIG_INT), column("name", TEXT))
+                .appendLong(0, 1)
+                .build();
+    }
+}
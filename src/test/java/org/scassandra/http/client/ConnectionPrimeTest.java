@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ConnectionPrimeTest {
+
+    @Test
+    public void testEqualsContract() {
+        EqualsVerifier.forClass(ConnectionPrime.class).verify();
+    }
+
+    @Test
+    public void fixedHandshakeDelayIsAUniformDistribution() {
+        ConnectionPrime prime = ConnectionPrime.builder().withHandshakeDelay(250).build();
+
+        assertEquals(DelayDistribution.uniform(250, 250), prime.getHandshakeDelay());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void refusalProbabilityAboveOne() {
+        ConnectionPrime.builder().withRefusalProbability(1.5).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void negativeMaxConnections() {
+        ConnectionPrime.builder().withMaxConnections(-1).build();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DelayDistributionTest {
+
+    private static final int SAMPLES = 10000;
+
+    @Test
+    public void seededDistributionsDrawTheSameDelays() {
+        DelayDistribution distribution = DelayDistribution.logNormal(5, 1).withSeed(42);
+
+        DelayDistribution.Sampler first = distribution.sampler();
+        DelayDistribution.Sampler second = distribution.sampler();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.nextDelay(), second.nextDelay());
+        }
+    }
+
+    @Test
+    public void uniformDelaysAreBetweenMinAndMax() {
+        DelayDistribution.Sampler sampler = DelayDistribution.uniform(10, 20).withSeed(1).sampler();
+
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = sampler.nextDelay();
+            assertTrue("Delay out of range " + delay, delay >= 10 && delay <= 20);
+        }
+    }
+
+    @Test
+    public void normalDelaysAreNeverNegative() {
+        DelayDistribution.Sampler sampler = DelayDistribution.normal(1, 10).withSeed(1).sampler();
+
+        for (int i = 0; i < SAMPLES; i++) {
+            assertTrue(sampler.nextDelay() >= 0);
+        }
+    }
+
+    @Test
+    public void percentileDelaysMatchTheTable() {
+        DelayDistribution.Sampler sampler = DelayDistribution.percentiles()
+                .withPercentile(50, 10)
+                .withPercentile(99, 100)
+                .withPercentile(100, 1000)
+                .build().withSeed(7).sampler();
+
+        long[] delays = sample(sampler);
+
+        assertEquals(10, delays[SAMPLES / 2], 2);
+        assertEquals(100, delays[SAMPLES * 99 / 100], 10);
+        assertTrue(delays[SAMPLES - 1] <= 1000);
+    }
+
+    @Test
+    public void bimodalDelaysComeFromBothModes() {
+        DelayDistribution.Sampler sampler = DelayDistribution.bimodal(
+                DelayDistribution.uniform(1, 2), DelayDistribution.uniform(100, 200), 0.1).withSeed(3).sampler();
+
+        long[] delays = sample(sampler);
+
+        int slow = 0;
+        for (long delay : delays) {
+            if (delay >= 100) {
+                slow++;
+            }
+        }
+        assertEquals(SAMPLES / 10, slow, SAMPLES / 50);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void percentileDelaysMustNotDecrease() {
+        DelayDistribution.percentiles().withPercentile(50, 10).withPercentile(99, 5).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void percentilesMustBeAtMostOneHundred() {
+        DelayDistribution.percentiles().withPercentile(100.1, 10).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void uniformMaxMustNotBeBelowMin() {
+        DelayDistribution.uniform(10, 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void slowFractionMustBeAFraction() {
+        DelayDistribution.bimodal(DelayDistribution.uniform(1, 2), DelayDistribution.uniform(3, 4), 1.5);
+    }
+
+    @Test
+    public void testEqualsContract() {
+        EqualsVerifier.forClass(DelayDistribution.class).allFieldsShouldBeUsed().verify();
+    }
+
+    private static long[] sample(DelayDistribution.Sampler sampler) {
+        long[] delays = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            delays[i] = sampler.nextDelay();
+        }
+        Arrays.sort(delays);
+        return delays;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonParser;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PrimeSnapshotTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final JsonCodec codec = new GsonJsonCodec();
+
+    @Test
+    public void readsThePrimesThatWereWritten() throws Exception {
+        Path path = folder.newFile("primes.bin").toPath();
+        PrimingRequest query = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build();
+        PrimingRequest prepared = PrimingRequest.preparedStatementBuilder()
+                .withQuery("select * from people where name = ?")
+                .withResult(PrimingRequest.Result.read_request_timeout)
+                .build();
+
+        PrimeSnapshot.write(path, Arrays.asList(query), Arrays.asList(prepared), codec);
+        List<PrimeSnapshot.Prime> primes = PrimeSnapshot.read(path);
+
+        assertEquals(2, primes.size());
+        assertFalse(primes.get(0).isPrepared());
+        assertEquals(json(query), json(primes.get(0).json()));
+        assertTrue(primes.get(1).isPrepared());
+        assertEquals(json(prepared), json(primes.get(1).json()));
+    }
+
+    @Test
+    public void jsonCanBeReadMoreThanOnce() throws Exception {
+        Path path = folder.newFile("primes.bin").toPath();
+        PrimeSnapshot.write(path, Arrays.asList(PrimingRequest.queryBuilder().withQuery("select * from people").build()),
+                Collections.<PrimingRequest>emptyList(), codec);
+        PrimeSnapshot.Prime prime = PrimeSnapshot.read(path).get(0);
+
+        assertEquals(json(prime.json()), json(prime.json()));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsAFileThatIsNotASnapshot() throws Exception {
+        Path path = folder.newFile("primes.json").toPath();
+        Files.write(path, "[{\"when\":{}}]".getBytes(UTF_8));
+
+        PrimeSnapshot.read(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsATruncatedSnapshot() throws Exception {
+        Path path = folder.newFile("primes.bin").toPath();
+        PrimeSnapshot.write(path, Arrays.asList(PrimingRequest.queryBuilder().withQuery("select * from people").build()),
+                Collections.<PrimingRequest>emptyList(), codec);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 5));
+
+        PrimeSnapshot.read(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsASnapshotClaimingMorePrimesThanItCouldHold() throws Exception {
+        Path path = folder.newFile("primes.bin").toPath();
+        Files.write(path, header(Integer.MAX_VALUE).array());
+
+        PrimeSnapshot.read(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsASnapshotWithANegativeCount() throws Exception {
+        Path path = folder.newFile("primes.bin").toPath();
+        Files.write(path, header(-1).array());
+
+        PrimeSnapshot.read(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsAPrimeLongerThanTheSnapshot() throws Exception {
+        Path path = folder.newFile("primes.bin").toPath();
+        ByteBuffer bytes = ByteBuffer.allocate(12 + 5 + 2);
+        bytes.put(header(1).array()).put((byte) 0).putInt(1000).put((byte) '{').put((byte) '}');
+        Files.write(path, bytes.array());
+
+        PrimeSnapshot.read(path);
+    }
+
+    private static ByteBuffer header(int count) {
+        ByteBuffer header = ByteBuffer.allocate(12);
+        header.putInt(PrimeSnapshot.MAGIC).putInt(PrimeSnapshot.VERSION).putInt(count);
+        return header;
+    }
+
+    private Object json(PrimingRequest prime) throws IOException {
+        StringWriter json = new StringWriter();
+        codec.writePrimingRequest(prime, json);
+        return new JsonParser().parse(json.toString());
+    }
+
+    private Object json(ByteBuffer bytes) {
+        byte[] json = new byte[bytes.remaining()];
+        bytes.get(json);
+        return new JsonParser().parse(new String(json, UTF_8));
+    }
+}
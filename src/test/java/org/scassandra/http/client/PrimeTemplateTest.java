@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.scassandra.cql.PrimitiveType.INT;
+import static org.scassandra.cql.PrimitiveType.TEXT;
+import static org.scassandra.http.client.PrimingRequest.Consistency.ONE;
+import static org.scassandra.http.client.PrimingRequest.Consistency.QUORUM;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class PrimeTemplateTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final JsonCodec codec = new GsonJsonCodec();
+    private final JsonParser parser = new JsonParser();
+
+    private final PrimingRequest prime = PrimingRequest.queryBuilder()
+            .withQuery("select * from people")
+            .withConsistency(ONE)
+            .withColumnTypes(column("name", TEXT), column("age", INT))
+            .withRows(ImmutableMap.of("name", "Chris", "age", 15))
+            .build();
+
+    @Test
+    public void encodesTheSameJsonAsTheCodec() throws Exception {
+        PrimeTemplate underTest = PrimeTemplate.of(prime, codec);
+
+        assertEquals(parser.parse(json(prime)), parser.parse(new String(underTest.bytes(), UTF_8)));
+        assertEquals(prime, underTest.getPrimingRequest());
+    }
+
+    @Test
+    public void variantWithADifferentQuery() throws Exception {
+        PrimeTemplate underTest = PrimeTemplate.of(prime, codec).withQuery("select * from users");
+
+        PrimingRequest expected = PrimingRequest.queryBuilder()
+                .withQuery("select * from users")
+                .withConsistency(ONE)
+                .withColumnTypes(column("name", TEXT), column("age", INT))
+                .withRows(ImmutableMap.of("name", "Chris", "age", 15))
+                .build();
+        assertEquals(expected, underTest.getPrimingRequest());
+        assertEquals(parser.parse(json(expected)), parser.parse(new String(underTest.bytes(), UTF_8)));
+    }
+
+    @Test
+    public void variantWithAQueryPatternAndDifferentConsistency() throws Exception {
+        PrimeTemplate underTest = PrimeTemplate.of(prime, codec).withQueryPattern("select .*").withConsistency(QUORUM);
+
+        PrimingRequest expected = PrimingRequest.queryBuilder()
+                .withQueryPattern("select .*")
+                .withConsistency(QUORUM)
+                .withColumnTypes(column("name", TEXT), column("age", INT))
+                .withRows(ImmutableMap.of("name", "Chris", "age", 15))
+                .build();
+        assertEquals(expected, underTest.getPrimingRequest());
+        assertEquals(parser.parse(json(expected)), parser.parse(new String(underTest.bytes(), UTF_8)));
+    }
+
+    @Test
+    public void variantForAllConsistencies() throws Exception {
+        PrimeTemplate underTest = PrimeTemplate.of(prime, codec).withConsistency();
+
+        PrimingRequest expected = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withColumnTypes(column("name", TEXT), column("age", INT))
+                .withRows(ImmutableMap.of("name", "Chris", "age", 15))
+                .build();
+        assertEquals(expected, underTest.getPrimingRequest());
+        assertEquals(parser.parse(json(expected)), parser.parse(new String(underTest.bytes(), UTF_8)));
+    }
+
+    @Test
+    public void rowsFromAnIterableCanBeFrozen() throws Exception {
+        PrimingRequest fromIterable = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(GeneratedRows.fromIterable(Collections.<Map<String, ?>>singletonList(ImmutableMap.of("name", "Chris"))))
+                .build();
+
+        PrimeTemplate underTest = PrimeTemplate.of(fromIterable, codec);
+
+        assertEquals(parser.parse(json(fromIterable)), parser.parse(new String(underTest.bytes(), UTF_8)));
+    }
+
+    private String json(PrimingRequest primingRequest) throws Exception {
+        StringWriter json = new StringWriter();
+        codec.writePrimingRequest(primingRequest, json);
+        return json.toString();
+    }
+}
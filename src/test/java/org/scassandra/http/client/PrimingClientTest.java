@@ -26,6 +26,9 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 
 public class PrimingClientTest {
@@ -688,4 +691,533 @@ public class PrimingClientTest {
                 )));
 
     }
+
+    @Test
+    public void testPrimingWithGeneratedRows() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(GeneratedRows.of(3, new GeneratedRows.RowSupplier() {
+                    @Override
+                    public Map<String, ?> row(int index) {
+                        return ImmutableMap.of("id", index);
+                    }
+                }))
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withHeader("Content-Type", equalTo("application/json; charset=UTF-8"))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[{\"id\":0},{\"id\":1},{\"id\":2}],\"result\":\"success\"}}")));
+    }
+
+    @Test
+    public void testPrimingWithRowsFromAnIterable() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        List<Map<String, ?>> rows = new ArrayList<Map<String, ?>>();
+        rows.add(ImmutableMap.of("name", "Chris"));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(GeneratedRows.fromIterable(rows))
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[{\"name\":\"Chris\"}],\"result\":\"success\"}}")));
+    }
+
+    @Test
+    public void testIdenticalPrimesAreOnlySentOnceWithDeduplication() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withPrimeDeduplication(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //then
+        verify(1, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testChangedPrimesAreSentWithDeduplication() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withPrimeDeduplication(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").withResult(PrimingRequest.Result.read_request_timeout).build());
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //then
+        verify(3, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testPrimesAreSentAgainAfterClearingWithDeduplication() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withPrimeDeduplication(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        underTest.clearQueryPrimes();
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //then
+        verify(2, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testIdenticalPrimesAreSentWithoutDeduplication() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //then
+        verify(2, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testPrimingFromATemplate() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimeTemplate template = PrimeTemplate.of(PrimingRequest.preparedStatementBuilder()
+                .withQuery("select * from people where name = ?")
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build());
+        //when
+        underTest.prime(template.withQuery("select * from users where name = ?"));
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_PREPARED_PATH))
+                .withHeader("Content-Type", equalTo("application/json; charset=UTF-8"))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from users where name = ?\"}," +
+                        " \"then\":{\"rows\":[{\"name\":\"Chris\"}],\"result\":\"success\"}}")));
+    }
+
+    @Test
+    public void testRevertingWithoutABaseLayerClearsPrimes() {
+        //given
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.revertToBase();
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(deleteRequestedFor(urlEqualTo(PRIME_PREPARED_PATH)));
+    }
+
+    @Test
+    public void testRevertingRestoresShadowedBasePrimes() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        underTest.primeBase(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build());
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").withResult(PrimingRequest.Result.unavailable).build());
+        //when
+        underTest.revertToBase();
+        //then
+        verify(0, deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(2, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[{\"name\":\"Chris\"}],\"result\":\"success\"}}")));
+    }
+
+    @Test
+    public void testRevertingAStatementWithoutABasePrimeSendsTheBaseLayerAgain() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        underTest.primeBase(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from users").withResult(PrimingRequest.Result.unavailable).build());
+        //when
+        underTest.revertToBase();
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(2, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[],\"result\":\"success\"}}")));
+        verify(1, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from users\"}," +
+                        " \"then\":{\"result\":\"unavailable\"}}")));
+    }
+
+    @Test
+    public void testRevertingAfterPrimesSentBeforeTheBaseLayerSendsTheBaseLayerAgain() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from users").build());
+        underTest.primeBase(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //when
+        underTest.revertToBase();
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(2, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[],\"result\":\"success\"}}")));
+    }
+
+    @Test
+    public void testRevertingAQueryPatternSendsTheBaseLayerAgain() {
+        //given
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        underTest.primeBase(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        underTest.prime(PrimingRequest.queryBuilder().withQueryPattern("select .*").withResult(PrimingRequest.Result.unavailable).build());
+        //when
+        underTest.revertToBase();
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(2, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[],\"result\":\"success\"}}")));
+    }
+
+    @Test
+    public void testExportedPrimesAreImportedAsTheyWereRetrieved() throws Exception {
+        //given
+        stubFor(get(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[{\"name\":\"Chris\"}],\"result\":\"success\"}}]")));
+        stubFor(get(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people where name = ?\"},\"then\":{\"rows\":[],\"result\":\"unavailable\"}}]")));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(post(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        Path snapshot = Files.createTempFile("primes", ".bin");
+        try {
+            underTest.exportPrimes(snapshot);
+            //when
+            underTest.importPrimes(snapshot);
+        } finally {
+            Files.delete(snapshot);
+        }
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(deleteRequestedFor(urlEqualTo(PRIME_PREPARED_PATH)));
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withHeader("Content-Type", equalTo("application/json; charset=UTF-8"))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[{\"name\":\"Chris\"}],\"result\":\"success\"}}")));
+        verify(postRequestedFor(urlEqualTo(PRIME_PREPARED_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people where name = ?\"}," +
+                        " \"then\":{\"rows\":[],\"result\":\"unavailable\"}}")));
+    }
+
+    @Test(expected = PrimeFailedException.class)
+    public void testImportingAMissingFile() {
+        underTest.importPrimes(Paths.get("does-not-exist.bin"));
+    }
+
+    @Test
+    public void testImportingACorruptFileFailsBeforeClearingThePrimes() throws Exception {
+        //given
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        Path snapshot = Files.createTempFile("primes", ".bin");
+        try {
+            Files.write(snapshot, java.nio.ByteBuffer.allocate(12)
+                    .putInt(PrimeSnapshot.MAGIC).putInt(PrimeSnapshot.VERSION).putInt(Integer.MAX_VALUE).array());
+            //when
+            underTest.importPrimes(snapshot);
+            fail("Expected importing to fail");
+        } catch (PrimeFailedException e) {
+            // expected
+        } finally {
+            Files.delete(snapshot);
+        }
+        //then
+        verify(0, deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testReplacingAllPrimesWithTheSameStatementsSendsThemOverTheOldOnes() {
+        //given
+        stubFor(get(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people\",\"consistency\":[\"ONE\",\"TWO\"]},\"then\":{\"rows\":[],\"result\":\"unavailable\"}}]")));
+        stubFor(get(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200).withBody("[]")));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest people = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withConsistency(PrimingRequest.Consistency.TWO, PrimingRequest.Consistency.ONE)
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build();
+        //when
+        long generation = underTest.replaceAllPrimes(Arrays.asList(people));
+        //then
+        assertEquals(1, generation);
+        assertEquals(1, underTest.primeGeneration());
+        verify(0, deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(0, deleteRequestedFor(urlEqualTo(PRIME_PREPARED_PATH)));
+        verify(1, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testReplacingAllPrimesClearsThePrimesWhenAStatementIsDropped() {
+        //given
+        stubFor(get(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[],\"result\":\"unavailable\"}}," +
+                        "{\"when\":{\"query\":\"select * from users\"},\"then\":{\"rows\":[],\"result\":\"unavailable\"}}]")));
+        stubFor(get(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200).withBody("[]")));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest people = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build();
+        //when
+        underTest.replaceAllPrimes(Arrays.asList(people));
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(0, deleteRequestedFor(urlEqualTo(PRIME_PREPARED_PATH)));
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[{\"name\":\"Chris\"}],\"result\":\"success\"}}")));
+        verify(1, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testReplacingAllPrimesClearsThePrimesWhenConsistenciesChange() {
+        //given
+        stubFor(get(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people\",\"consistency\":[\"ONE\",\"TWO\"]},\"then\":{\"rows\":[],\"result\":\"unavailable\"}}]")));
+        stubFor(get(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200).withBody("[]")));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.replaceAllPrimes(Arrays.asList(PrimingRequest.queryBuilder().withQuery("select * from people").build()));
+        //then
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(1, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+    }
+
+    @Test
+    public void testFailedReplacementPutsThePreviousPrimesBack() {
+        //given
+        stubFor(get(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[],\"result\":\"unavailable\"}}]")));
+        stubFor(get(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200).withBody("[]")));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).withRequestBody(containing("select * from users"))
+                .willReturn(aResponse().withStatus(500)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        List<PrimingRequest> primes = Arrays.asList(
+                PrimingRequest.queryBuilder().withQuery("select * from people").build(),
+                PrimingRequest.queryBuilder().withQuery("select * from users").build());
+        //when
+        try {
+            underTest.replaceAllPrimes(primes);
+            fail("Expected the replacement to fail");
+        } catch (PrimeFailedException e) {
+            // expected
+        }
+        //then
+        assertEquals(0, underTest.primeGeneration());
+        verify(deleteRequestedFor(urlEqualTo(PRIME_QUERY_PATH)));
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[],\"result\":\"unavailable\"}}")));
+    }
+
+    @Test
+    public void testFailedReplacementPutsThePreviousPrimesBackAsScassandraListedThem() {
+        //given
+        stubFor(get(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200).withBody(
+                "[{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[{\"age\":15}],\"result\":\"success\"}}]")));
+        stubFor(get(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200).withBody("[]")));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(500)));
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).withRequestBody(containing("\"age\":15}"))
+                .willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        stubFor(delete(urlEqualTo(PRIME_PREPARED_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        try {
+            underTest.replaceAllPrimes(Arrays.asList(PrimingRequest.queryBuilder().withQuery("select * from users").build()));
+            fail("Expected the replacement to fail");
+        } catch (PrimeFailedException e) {
+            // expected
+            assertEquals(0, e.getSuppressed().length);
+        }
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)).withRequestBody(containing("\"age\":15}")));
+        verify(0, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)).withRequestBody(containing("15.0")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReplacingAllPrimesWithRetrievedPrimesIsRejected() {
+        underTest.replaceAllPrimes(Arrays.asList(new PrimingRequest(null, null, null)));
+    }
+
+    @Test
+    public void testPrimesAtTheThresholdAreCompressed() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withRequestCompression(0).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)).withHeader("Content-Encoding", equalTo("gzip")));
+    }
+
+    @Test
+    public void testPrimesBelowTheThresholdAreNotCompressed() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withRequestCompression(64 * 1024).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        //when
+        underTest.prime(PrimingRequest.queryBuilder().withQuery("select * from people").build());
+        //then
+        verify(0, postRequestedFor(urlEqualTo(PRIME_QUERY_PATH)).withHeader("Content-Encoding", equalTo("gzip")));
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"}," +
+                        " \"then\":{\"rows\":[],\"result\":\"success\"}}")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrimingQueryOverloadedIsRejectedForTheBundledServer() {
+        underTest.prime(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResult(PrimingRequest.Result.overloaded)
+                .build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrimingQueryWithARateLimitInAResultSequenceIsRejectedForTheBundledServer() {
+        underTest.prime(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResultSequence(Outcome.outcome(PrimingRequest.Result.success, new RateLimitConfig(100, 10)))
+                .build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrimingQueryWithAResultSequenceOfPlainResultsIsRejectedForTheBundledServer() {
+        underTest.prime(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResultSequence(Outcome.outcome(PrimingRequest.Result.read_request_timeout))
+                .build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrimingQueryWithAResultMixOfPlainResultsIsRejectedForTheBundledServer() {
+        underTest.prime(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResultMix(Outcome.outcome(PrimingRequest.Result.success).withWeight(98),
+                        Outcome.outcome(PrimingRequest.Result.read_request_timeout).withWeight(2))
+                .build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPrimingQueryWithADelayDistributionIsRejectedForTheBundledServer() {
+        underTest.prime(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withDelayDistribution(DelayDistribution.uniform(10, 20))
+                .build());
+    }
+
+    @Test
+    public void testPrimingQueryWithAResultSequence() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withExtendedPrimes(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResultSequence(Outcome.outcome(PrimingRequest.Result.read_request_timeout))
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[],\"result\":\"success\"," +
+                        "\"resultSequence\":[{\"result\":\"read_request_timeout\"}]}}")));
+    }
+
+    @Test
+    public void testPrimingQueryOverloaded() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withExtendedPrimes(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResult(PrimingRequest.Result.overloaded)
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"},\"then\":{\"result\":\"overloaded\"}}")));
+    }
+
+    @Test
+    public void testPrimingQueryWithARateLimit() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withExtendedPrimes(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withConfig(new RateLimitConfig(100, 10, 50))
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[],\"result\":\"success\", \"config\": {\n" +
+                        "  \"limit.requests_per_second\":\"100.0\",\n" +
+                        "  \"limit.burst\":\"10\",\n" +
+                        "  \"limit.rate_max_queue_delay\":\"50\"\n" +
+                        "}}}")));
+    }
+
+    @Test
+    public void testPrimingQueryWithAConcurrencyLimit() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withExtendedPrimes(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withFixedDelay(20)
+                .withConfig(new ConcurrencyLimitConfig(8))
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[],\"result\":\"success\",\"fixedDelay\":20, \"config\": {\n" +
+                        "  \"limit.max_concurrent_requests\":\"8\",\n" +
+                        "  \"limit.concurrency_max_queue_delay\":\"0\"\n" +
+                        "}}}")));
+    }
+
+    @Test
+    public void testPrimingQueryWithARateLimitAndAConcurrencyLimit() {
+        //given
+        underTest = PrimingClient.builder().withHost("localhost").withPort(PORT).withExtendedPrimes(true).build();
+        stubFor(post(urlEqualTo(PRIME_QUERY_PATH)).willReturn(aResponse().withStatus(200)));
+        PrimingRequest pr = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withConfig(new RateLimitConfig(100, 10, 50))
+                .withConfig(new ConcurrencyLimitConfig(8))
+                .build();
+        //when
+        underTest.prime(pr);
+        //then
+        verify(postRequestedFor(urlEqualTo(PRIME_QUERY_PATH))
+                .withRequestBody(equalToJson("{\"when\":{\"query\":\"select * from people\"},\"then\":{\"rows\":[],\"result\":\"success\", \"config\": {\n" +
+                        "  \"limit.requests_per_second\":\"100.0\",\n" +
+                        "  \"limit.burst\":\"10\",\n" +
+                        "  \"limit.rate_max_queue_delay\":\"50\",\n" +
+                        "  \"limit.max_concurrent_requests\":\"8\",\n" +
+                        "  \"limit.concurrency_max_queue_delay\":\"0\"\n" +
+                        "}}}")));
+    }
 }
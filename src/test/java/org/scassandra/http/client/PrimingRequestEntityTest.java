@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class PrimingRequestEntityTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final JsonCodec codec = new GsonJsonCodec();
+    private final JsonParser parser = new JsonParser();
+
+    @Test
+    public void contentIsWhatIsWritten() throws Exception {
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(ImmutableMap.of("name", "Chris", "age", 15))
+                .build();
+        PrimingRequestEntity underTest = new PrimingRequestEntity(prime, codec);
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        underTest.writeTo(written);
+
+        byte[] content = ByteStreams.toByteArray(underTest.getContent());
+
+        assertEquals(parser.parse(written.toString("UTF-8")), parser.parse(new String(content, UTF_8)));
+    }
+
+    @Test(expected = IOException.class)
+    public void readingTheContentThrowsWhenSerialisingFails() throws Exception {
+        Iterable<Map<String, ?>> failingRows = new Iterable<Map<String, ?>>() {
+            @Override
+            public Iterator<Map<String, ?>> iterator() {
+                throw new IllegalStateException("generating the rows failed");
+            }
+        };
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(GeneratedRows.fromIterable(failingRows))
+                .build();
+
+        ByteStreams.toByteArray(new PrimingRequestEntity(prime, codec).getContent());
+    }
+}
@@ -15,11 +15,21 @@
  */
 package org.scassandra.http.client;
 
+import com.google.common.collect.ImmutableMap;
 import org.junit.Test;
 import nl.jqno.equalsverifier.EqualsVerifier;
 
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
+import static org.scassandra.cql.PrimitiveType.TEXT;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
 
 public class PrimingRequestTest {
     @Test
@@ -73,4 +83,197 @@ public class PrimingRequestTest {
         EqualsVerifier.forClass(PrimingRequest.Then.class).allFieldsShouldBeUsed().verify();
         EqualsVerifier.forClass(PrimingRequest.class).allFieldsShouldBeUsed().verify();
     }
+
+    @Test
+    public void variantsShareTheRowsColumnTypesAndConfig() {
+        //given
+        PrimingRequest base = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withColumnTypes(column("name", TEXT))
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .withConfig(new UnavailableConfig(2, 1))
+                .build();
+        //when
+        PrimingRequest variant = base.toBuilder()
+                .withConsistency(PrimingRequest.Consistency.ONE)
+                .withFixedDelay(100)
+                .build();
+        //then
+        assertSame(base.getThen().rows, variant.getThen().rows);
+        assertSame(base.getThen().column_types, variant.getThen().column_types);
+        assertSame(base.getThen().config, variant.getThen().config);
+        assertEquals(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withConsistency(PrimingRequest.Consistency.ONE)
+                .withFixedDelay(100)
+                .withColumnTypes(column("name", TEXT))
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .withConfig(new UnavailableConfig(2, 1))
+                .build(), variant);
+    }
+
+    @Test
+    public void changingTheConfigOfAVariantLeavesTheOriginal() {
+        //given
+        PrimingRequest base = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withResult(PrimingRequest.Result.unavailable)
+                .withConfig(new UnavailableConfig(2, 1))
+                .build();
+        Map<String, Object> config = ImmutableMap.copyOf(base.getThen().config);
+        //when
+        PrimingRequest variant = base.toBuilder()
+                .withConfig(new ReadTimeoutConfig(1, 1, true))
+                .build();
+        //then
+        assertEquals(config, base.getThen().config);
+        assertEquals(4, variant.getThen().config.size());
+    }
+
+    @Test
+    public void aConcurrencyLimitKeepsTheQueueDelayOfARateLimit() {
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withConfig(new RateLimitConfig(100, 10, 50))
+                .withConfig(new ConcurrencyLimitConfig(8))
+                .build();
+
+        assertEquals("50", prime.getThen().config.get(RateLimitConfig.MAX_QUEUE_DELAY));
+        assertEquals("0", prime.getThen().config.get(ConcurrencyLimitConfig.MAX_QUEUE_DELAY));
+    }
+
+    @Test
+    public void variantWithAnotherResultDoesNotKeepTheDefaultedRows() {
+        PrimingRequest base = PrimingRequest.queryBuilder().withQuery("select * from people").build();
+
+        PrimingRequest variant = base.toBuilder().withResult(PrimingRequest.Result.read_request_timeout).build();
+
+        assertNull(variant.getThen().rows);
+    }
+
+    @Test
+    public void variantsOfAPrimeWithRowsFromAnIterableShareTheRows() {
+        //given
+        List<Map<String, ?>> rows = new ArrayList<Map<String, ?>>();
+        rows.add(ImmutableMap.of("name", "Chris"));
+        PrimingRequest base = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(GeneratedRows.fromIterable(rows))
+                .build();
+        //when
+        PrimingRequest variant = base.toBuilder().withQuery("select * from other_people").build();
+        //then
+        assertSame(base.getThen().rows, variant.getThen().rows);
+        assertEquals(1, variant.getThen().rows.size());
+        assertEquals(rows.get(0), variant.getThen().rows.get(0));
+    }
+
+    @Test
+    public void variantsOfRetrievedPrimesHaveNoTypeEither() {
+        //given
+        PrimingRequest built = PrimingRequest.queryBuilder().withQuery("select * from people").build();
+        PrimingRequest retrieved = new PrimingRequest(null, built.getWhen(), built.getThen());
+        //when
+        PrimingRequest variant = retrieved.toBuilder().withResult(PrimingRequest.Result.unavailable).build();
+        //then
+        assertNull(variant.primeType);
+        assertEquals(PrimingRequest.Result.unavailable, variant.getThen().getResult());
+    }
+
+    @Test
+    public void rowsEqualTheListTheyWereBuiltFrom() {
+        List<Map<String, ?>> rows = new ArrayList<Map<String, ?>>();
+        rows.add(ImmutableMap.of("name", "Chris"));
+
+        PrimingRequest prime = PrimingRequest.queryBuilder().withQuery("select * from people").withRows(rows).build();
+
+        assertEquals(rows, prime.getThen().getRows());
+        assertEquals(prime.getThen().rows, rows);
+        assertEquals(rows.hashCode(), prime.getThen().rows.hashCode());
+    }
+
+    @Test
+    public void changingTheListTheRowsWereBuiltFromLeavesThePrime() {
+        List<Map<String, ?>> rows = new ArrayList<Map<String, ?>>();
+        rows.add(ImmutableMap.of("name", "Chris"));
+        PrimingRequest prime = PrimingRequest.queryBuilder().withQuery("select * from people").withRows(rows).build();
+        int hashCode = prime.getThen().rows.hashCode();
+
+        rows.add(ImmutableMap.of("name", "Alice"));
+
+        assertEquals(1, prime.getThen().rows.size());
+        assertEquals(hashCode, prime.getThen().rows.hashCode());
+    }
+
+    @Test
+    public void changingTheConsistenciesTheWhenWasBuiltFromLeavesThePrime() {
+        PrimingRequest.Consistency[] consistencies = {PrimingRequest.Consistency.ONE};
+        PrimingRequest prime = PrimingRequest.queryBuilder().withQuery("select * from people").withConsistency(consistencies).build();
+        int hashCode = prime.getWhen().hashCode();
+
+        consistencies[0] = PrimingRequest.Consistency.TWO;
+
+        assertEquals(Arrays.asList(PrimingRequest.Consistency.ONE), prime.getWhen().getConsistency());
+        assertEquals(hashCode, prime.getWhen().hashCode());
+    }
+
+    @Test
+    public void variantsHashLikeTheSamePrimeBuiltFromScratch() {
+        PrimingRequest base = PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build();
+        base.hashCode();
+
+        PrimingRequest variant = base.toBuilder().withConsistency(PrimingRequest.Consistency.ONE).build();
+
+        assertEquals(PrimingRequest.queryBuilder()
+                .withQuery("select * from people")
+                .withConsistency(PrimingRequest.Consistency.ONE)
+                .withRows(ImmutableMap.of("name", "Chris"))
+                .build().hashCode(), variant.hashCode());
+    }
+
+    @Test
+    public void throwsIllegalStateExceptionIfFixedDelayAndDelayDistributionSpecified() {
+        try {
+            PrimingRequest.queryBuilder()
+                    .withQuery("select something")
+                    .withFixedDelay(10)
+                    .withDelayDistribution(DelayDistribution.uniform(1, 10))
+                    .build();
+            fail("Expected illegal state exception");
+        } catch (IllegalStateException e) {
+            assertEquals("Can't specify fixedDelay and a delay distribution", e.getMessage());
+        }
+    }
+
+    @Test
+    public void throwsIllegalStateExceptionIfAnOutcomeInAResultMixHasNoWeight() {
+        try {
+            PrimingRequest.queryBuilder()
+                    .withQuery("select something")
+                    .withResultMix(Outcome.outcome(PrimingRequest.Result.success).withWeight(98),
+                            Outcome.outcome(PrimingRequest.Result.unavailable, new UnavailableConfig(2, 1)))
+                    .build();
+            fail("Expected illegal state exception");
+        } catch (IllegalStateException e) {
+            assertEquals("Every outcome in a result mix must have a weight: " +
+                    Outcome.outcome(PrimingRequest.Result.unavailable, new UnavailableConfig(2, 1)), e.getMessage());
+        }
+    }
+
+    @Test
+    public void throwsIllegalStateExceptionIfResultMixAndSequenceSpecified() {
+        try {
+            PrimingRequest.queryBuilder()
+                    .withQuery("select something")
+                    .withResultMix(Outcome.outcome(PrimingRequest.Result.success).withWeight(1))
+                    .withResultSequence(Outcome.outcome(PrimingRequest.Result.unavailable))
+                    .build();
+            fail("Expected illegal state exception");
+        } catch (IllegalStateException e) {
+            assertEquals("Can't specify a result mix and a result sequence", e.getMessage());
+        }
+    }
 }
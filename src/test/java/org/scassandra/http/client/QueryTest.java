@@ -32,4 +32,18 @@ public class QueryTest {
         Query query = Query.builder().withQuery("query").build();
         assertEquals("ONE", query.getConsistency());
     }
+
+    @Test
+    public void timingIsNotPartOfEquals() {
+        Query recorded = Query.builder().withQuery("query")
+                .withConnectionId("127.0.0.1:51234")
+                .withReceivedAt(1413000000000L)
+                .withReceivedNanos(5000)
+                .withRespondedAt(1413000000001L)
+                .withRespondedNanos(1005000)
+                .build();
+
+        assertEquals(Query.builder().withQuery("query").build(), recorded);
+        assertEquals(Long.valueOf(1000000), recorded.getServiceTimeNanos());
+    }
 }
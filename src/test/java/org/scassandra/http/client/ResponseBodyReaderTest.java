@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.base.Strings;
+import com.google.common.io.CharStreams;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResponseBodyReaderTest {
+
+    @Test
+    public void readsTheWholeBody() throws Exception {
+        StringEntity entity = new StringEntity("[{\"query\":\"select * from people where name = 'Zo\u00eb'\"}]", ContentType.APPLICATION_JSON);
+
+        ResponseBodyReader underTest = ResponseBodyReader.of(entity, true);
+
+        assertEquals("[{\"query\":\"select * from people where name = 'Zo\u00eb'\"}]", CharStreams.toString(underTest));
+        assertEquals("[{\"query\":\"select * from people where name = 'Zo\u00eb'\"}]", underTest.loggedPrefix());
+    }
+
+    @Test
+    public void onlyCapturesABoundedPrefix() throws Exception {
+        String body = Strings.repeat("a", ResponseBodyReader.LOGGED_PREFIX_CHARACTERS * 10);
+        ResponseBodyReader underTest = ResponseBodyReader.of(new StringEntity(body, ContentType.APPLICATION_JSON), true);
+
+        assertEquals(body, CharStreams.toString(underTest));
+        assertEquals(Strings.repeat("a", ResponseBodyReader.LOGGED_PREFIX_CHARACTERS) + "...", underTest.loggedPrefix());
+    }
+
+    @Test
+    public void capturesNothingUnlessAsked() throws Exception {
+        ResponseBodyReader underTest = ResponseBodyReader.of(new StringEntity("[]", ContentType.APPLICATION_JSON), false);
+
+        assertEquals("[]", CharStreams.toString(underTest));
+        assertEquals("", underTest.loggedPrefix());
+    }
+
+    @Test
+    public void decodesCharactersSplitAcrossReadsFromTheConnection() throws Exception {
+        String body = "a" + Strings.repeat("\u00eb\u4e2d", 10000);
+        ResponseBodyReader underTest = ResponseBodyReader.of(new StringEntity(body, ContentType.APPLICATION_JSON), false);
+
+        assertEquals(body, CharStreams.toString(underTest));
+    }
+
+    @Test
+    public void decodesBodiesInOtherCharsets() throws Exception {
+        ContentType latin1 = ContentType.create("application/json", Charset.forName("ISO-8859-1"));
+
+        ResponseBodyReader underTest = ResponseBodyReader.of(new StringEntity("[\"Zo\u00eb\"]", latin1), false);
+
+        assertEquals("[\"Zo\u00eb\"]", CharStreams.toString(underTest));
+    }
+
+    @Test
+    public void decodesOneBodyAfterAnother() throws Exception {
+        assertEquals("[1]", CharStreams.toString(ResponseBodyReader.of(new StringEntity("[1]", ContentType.APPLICATION_JSON), false)));
+
+        assertEquals("[2]", CharStreams.toString(ResponseBodyReader.of(new StringEntity("[2]", ContentType.APPLICATION_JSON), false)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void aBodyCanNotBeReadOnceAnotherHasBeenStartedOnTheSameThread() throws Exception {
+        ResponseBodyReader first = ResponseBodyReader.of(new StringEntity("[1]", ContentType.APPLICATION_JSON), false);
+        ResponseBodyReader.of(new StringEntity("[2]", ContentType.APPLICATION_JSON), false);
+
+        first.read();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.scassandra.cql.PrimitiveType.INT;
+import static org.scassandra.cql.PrimitiveType.TEXT;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class StreamingJsonCodecTest {
+
+    private final JsonCodec gsonCodec = new GsonJsonCodec();
+    private final JsonCodec underTest = new StreamingJsonCodec();
+
+    @Test
+    public void writesTheSameJsonAsTheGsonCodec() throws Exception {
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people where name = 'Chris'")
+                .withColumnTypes(column("name", TEXT), column("age", INT))
+                .withRows(ImmutableMap.of("name", "Chris", "age", 15))
+                .withConfig(new UnavailableConfig(2, 1))
+                .build();
+        StringWriter expected = new StringWriter();
+        StringWriter actual = new StringWriter();
+
+        gsonCodec.writePrimingRequest(prime, expected);
+        underTest.writePrimingRequest(prime, actual);
+
+        JsonParser parser = new JsonParser();
+        assertEquals(parser.parse(expected.toString()), parser.parse(actual.toString()));
+    }
+
+    @Test
+    public void doesNotHtmlEscapeStatements() throws Exception {
+        PrimingRequest prime = PrimingRequest.queryBuilder()
+                .withQuery("select * from people where name = 'Chris'")
+                .build();
+        StringWriter actual = new StringWriter();
+
+        underTest.writePrimingRequest(prime, actual);
+
+        assertEquals("{\"when\":{\"query\":\"select * from people where name = 'Chris'\"},\"then\":{\"rows\":[],\"result\":\"success\"}}",
+                actual.toString());
+    }
+
+    @Test
+    public void readsTheSameActivityAsTheGsonCodec() throws Exception {
+        String queries = "[{\"query\":\"select * from people\",\"consistency\":\"TWO\"}]";
+        String executions = "[{\"preparedStatementText\":\"select * from people where name = ?\",\"consistency\":\"ONE\"," +
+                "\"variables\":[\"Chris\"],\"variableTypes\":[\"varchar\"]}]";
+
+        assertEquals(gsonCodec.readQueries(new StringReader(queries)), underTest.readQueries(new StringReader(queries)));
+        assertEquals(gsonCodec.readPreparedStatementExecutions(new StringReader(executions)),
+                underTest.readPreparedStatementExecutions(new StringReader(executions)));
+        assertEquals(Arrays.asList(Connection.builder().withResult("success").build()),
+                underTest.readConnections(new StringReader("[{\"result\":\"success\"}]")));
+    }
+
+    @Test
+    public void readsVersion() throws Exception {
+        assertEquals("0.7.0", underTest.readVersion(new StringReader("{\"version\":\"0.7.0\"}")));
+        assertEquals("0.7.0", gsonCodec.readVersion(new StringReader("{\"version\":\"0.7.0\"}")));
+    }
+}
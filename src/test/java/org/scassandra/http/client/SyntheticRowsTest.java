@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.util.*;
+
+import static org.junit.Assert.*;
+import static org.scassandra.cql.ListType.list;
+import static org.scassandra.cql.MapType.map;
+import static org.scassandra.cql.PrimitiveType.*;
+import static org.scassandra.cql.SetType.set;
+import static org.scassandra.http.client.types.ColumnMetadata.column;
+
+public class SyntheticRowsTest {
+
+    @Test
+    public void sameSeedGeneratesTheSameRows() throws Exception {
+        SyntheticRows first = SyntheticRows.builder().withSeed(7).withRowCount(100)
+                .withColumn(column("name", TEXT))
+                .withColumn(column("scores", map(TEXT, list(INT))))
+                .build();
+        SyntheticRows second = SyntheticRows.builder().withSeed(7).withRowCount(100)
+                .withColumn(column("name", TEXT))
+                .withColumn(column("scores", map(TEXT, list(INT))))
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(first.row(i), second.row(i));
+        }
+        assertEquals(first.row(42), first.row(42));
+    }
+
+    @Test
+    public void generatesValuesOfTheColumnType() throws Exception {
+        SyntheticRows underTest = SyntheticRows.builder().withRowCount(10)
+                .withColumn(column("id", BIG_INT))
+                .withColumn(column("id_uuid", UUID))
+                .withColumn(column("created", TIMEUUID))
+                .withColumn(column("address", INET))
+                .withColumn(column("balance", DECIMAL))
+                .withColumn(column("tags", set(VARCHAR)))
+                .build();
+
+        Map<String, ?> row = underTest.row(3);
+
+        assertTrue(row.get("id") instanceof Long);
+        assertEquals(4, ((java.util.UUID) row.get("id_uuid")).version());
+        assertEquals(1, ((java.util.UUID) row.get("created")).version());
+        assertTrue(row.get("address") instanceof InetAddress);
+        assertTrue(row.get("balance") instanceof BigDecimal);
+        assertTrue(row.get("tags") instanceof Set);
+    }
+
+    @Test
+    public void respectsCardinalityNullRateAndSizes() throws Exception {
+        SyntheticRows underTest = SyntheticRows.builder().withRowCount(1000)
+                .withColumn(column("country", TEXT), SyntheticRows.ColumnSpec.builder()
+                        .withCardinality(5).withNullRate(0.5).withSizes(2, 4).build())
+                .build();
+
+        Set<Object> distinct = new HashSet<Object>();
+        int nulls = 0;
+        for (int i = 0; i < 1000; i++) {
+            Object country = underTest.row(i).get("country");
+            if (country == null) {
+                nulls++;
+            } else {
+                distinct.add(country);
+                int length = ((String) country).length();
+                assertTrue(length >= 2 && length <= 4);
+            }
+        }
+
+        assertTrue(distinct.size() <= 5);
+        assertTrue("nulls " + nulls, nulls > 400 && nulls < 600);
+    }
+
+    @Test
+    public void sequentialValues() throws Exception {
+        SyntheticRows underTest = SyntheticRows.builder().withRowCount(3)
+                .withColumn(column("id", INT), SyntheticRows.ColumnSpec.builder().withSequentialValues().build())
+                .withColumn(column("name", TEXT), SyntheticRows.ColumnSpec.builder().withSequentialValues().build())
+                .build();
+
+        assertEquals(2, underTest.row(2).get("id"));
+        assertEquals("name-2", underTest.row(2).get("name"));
+    }
+
+    @Test
+    public void feedsThePrimeBuilder() throws Exception {
+        SyntheticRows rows = SyntheticRows.builder().withRowCount(1000000)
+                .withColumn(column("id", BIG_INT))
+                .build();
+
+        PrimingRequest prime = PrimingRequest.queryBuilder().withQuery("select * from events").withRows(rows).build();
+
+        assertEquals(BIG_INT, prime.getThen().getColumnTypes().get("id"));
+        assertEquals(1000000, prime.getThen().getRows().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsInvalidNullRate() throws Exception {
+        SyntheticRows.ColumnSpec.builder().withNullRate(1.5).build();
+    }
+}
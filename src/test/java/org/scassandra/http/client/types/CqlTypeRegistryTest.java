@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.http.client.types;
+
+import org.junit.Test;
+import org.scassandra.cql.CqlType;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.scassandra.cql.ListType.list;
+import static org.scassandra.cql.MapType.map;
+import static org.scassandra.cql.PrimitiveType.INT;
+import static org.scassandra.cql.PrimitiveType.TEXT;
+
+public class CqlTypeRegistryTest {
+
+    @Test
+    public void parsesTypeString() throws Exception {
+        CqlTypeRegistry underTest = new CqlTypeRegistry();
+
+        CqlType type = underTest.lookup("map<text,list<int>>");
+
+        assertEquals(map(TEXT, list(INT)), type);
+    }
+
+    @Test
+    public void eachDistinctTypeIsParsedOnce() throws Exception {
+        CqlTypeRegistry underTest = new CqlTypeRegistry();
+
+        CqlType first = underTest.lookup("list<int>");
+        CqlType second = underTest.lookup("list<int>");
+        underTest.lookup("text");
+
+        assertSame(first, second);
+        assertEquals(2, underTest.size());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+import org.scassandra.analysis.ActivityAnalyser;
+import org.scassandra.analysis.ActivityAnalysis;
+import org.scassandra.http.client.Query;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrencyMatcherTest {
+
+    @Test
+    public void matchesConcurrencyThePoolAllows() throws Exception {
+        ActivityAnalysis analysis = analyse(query("a", 0, 10), query("a", 1, 10), query("b", 2, 10), query("b", 3, 10));
+
+        assertTrue(new ConcurrencyMatcher(2, 2).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchTooManyRequestsOnOneConnection() throws Exception {
+        ActivityAnalysis analysis = analyse(query("a", 0, 10), query("a", 1, 10), query("a", 2, 10));
+
+        assertFalse(new ConcurrencyMatcher(2, 2).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchTooManyRequestsInTotal() throws Exception {
+        ActivityAnalysis analysis = analyse(query("a", 0, 10), query("b", 1, 10), query("c", 2, 10));
+
+        assertFalse(new ConcurrencyMatcher(2, 1).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchUntimedActivity() throws Exception {
+        ActivityAnalysis analysis = analyse(query("a", 0, 10), Query.builder().withQuery("select").build());
+
+        assertFalse(new ConcurrencyMatcher(2, 2).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchNoActivity() throws Exception {
+        assertFalse(new ConcurrencyMatcher(2, 2).matchesSafely(analyse()));
+    }
+
+    @Test
+    public void explainsThatUntimedActivityHasNoConcurrency() throws Exception {
+        ActivityAnalysis analysis = analyse(Query.builder().withQuery("select").build());
+        StringDescription description = new StringDescription();
+
+        new ConcurrencyMatcher(2, 2).describeMismatchSafely(analysis, description);
+
+        assertEquals("1 of 1 activities were recorded without nano times so concurrency is unknown", description.toString());
+    }
+
+    private static ActivityAnalysis analyse(Query... queries) {
+        ActivityAnalyser analyser = new ActivityAnalyser(1, SECONDS);
+        for (Query query : queries) {
+            analyser.record(query);
+        }
+        return analyser.analysis();
+    }
+
+    private static Query query(String connection, long receivedNanos, long respondedNanos) {
+        return Query.builder()
+                .withQuery("select")
+                .withConnectionId(connection)
+                .withReceivedNanos(receivedNanos)
+                .withRespondedNanos(respondedNanos)
+                .build();
+    }
+}
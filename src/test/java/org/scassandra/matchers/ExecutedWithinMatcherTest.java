@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.junit.Test;
+import org.scassandra.http.client.Query;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExecutedWithinMatcherTest {
+
+    private final ExecutedWithinMatcher underTest = new ExecutedWithinMatcher(100, MILLISECONDS);
+
+    @Test
+    public void matchesActivityWithinTheWindow() throws Exception {
+        boolean matched = underTest.matchesSafely(Arrays.asList(query(0, 10000000), query(50000000, 100000000)));
+
+        assertTrue(matched);
+    }
+
+    @Test
+    public void doesNotMatchActivityRespondedToAfterTheWindow() throws Exception {
+        boolean matched = underTest.matchesSafely(Arrays.asList(query(0, 10000000), query(50000000, 100000001)));
+
+        assertFalse(matched);
+    }
+
+    @Test
+    public void usesReceivedTimeWhenNotRespondedTo() throws Exception {
+        Query unanswered = Query.builder().withQuery("select").withReceivedNanos(90000000).build();
+
+        boolean matched = underTest.matchesSafely(Arrays.asList(query(0, 10000000), unanswered));
+
+        assertTrue(matched);
+    }
+
+    @Test
+    public void doesNotMatchActivityWithoutTimes() throws Exception {
+        boolean matched = underTest.matchesSafely(Arrays.asList(Query.builder().withQuery("select").build()));
+
+        assertFalse(matched);
+    }
+
+    @Test
+    public void matchesNoActivity() throws Exception {
+        boolean matched = underTest.matchesSafely(Collections.<Query>emptyList());
+
+        assertTrue(matched);
+    }
+
+    private static Query query(long receivedNanos, long respondedNanos) {
+        return Query.builder()
+                .withQuery("select")
+                .withReceivedNanos(receivedNanos)
+                .withRespondedNanos(respondedNanos)
+                .build();
+    }
+}
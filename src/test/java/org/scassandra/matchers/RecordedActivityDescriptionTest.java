@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+import org.scassandra.http.client.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RecordedActivityDescriptionTest {
+
+    @Test
+    public void describesNoActivity() throws Exception {
+        QueryMatcher underTest = new QueryMatcher(Query.builder().withQuery("select * from people").build());
+        StringDescription description = new StringDescription();
+
+        underTest.describeMismatchSafely(Collections.<Query>emptyList(), description);
+
+        assertEquals("no queries were executed", description.toString());
+    }
+
+    @Test
+    public void closestStatementIsListedFirst() throws Exception {
+        QueryMatcher underTest = new QueryMatcher(Query.builder().withQuery("select * from people").build());
+        List<Query> actual = new ArrayList<Query>();
+        actual.add(Query.builder().withQuery("insert into things (a) values (1)").build());
+        actual.add(Query.builder().withQuery("select * from peoples").withConsistency("TWO").build());
+        StringDescription description = new StringDescription();
+
+        underTest.describeMismatchSafely(actual, description);
+
+        String text = description.toString();
+        assertTrue(text, text.startsWith("2 queries were executed (2 distinct statements)"));
+        assertTrue(text, text.contains("closest to the expected statement:\n  [distance 1, executed 1 times] Query{query='select * from peoples', consistency='TWO'}"));
+    }
+
+    @Test
+    public void descriptionOfLargeActivityIsCapped() throws Exception {
+        QueryMatcher underTest = new QueryMatcher(Query.builder().withQuery("select * from people").build());
+        List<Query> actual = new ArrayList<Query>();
+        for (int i = 0; i < 100000; i++) {
+            actual.add(Query.builder().withQuery("select * from people where id = " + i).build());
+        }
+        StringDescription description = new StringDescription();
+
+        underTest.describeMismatchSafely(actual, description);
+
+        String text = description.toString();
+        assertTrue(text, text.startsWith("100000 queries were executed (100000 distinct statements)"));
+        assertTrue(text.length() <= RecordedActivityDescription.MAX_CHARACTERS + 64);
+    }
+
+    @Test
+    public void groupsRepeatedStatements() throws Exception {
+        QueryMatcher underTest = new QueryMatcher(Query.builder().withQuery("select * from people").build());
+        List<Query> actual = new ArrayList<Query>();
+        for (int i = 0; i < 3; i++) {
+            actual.add(Query.builder().withQuery("select * from things").build());
+        }
+        StringDescription description = new StringDescription();
+
+        underTest.describeMismatchSafely(actual, description);
+
+        assertTrue(description.toString(), description.toString().contains("most executed statements:\n  3 x select * from things"));
+    }
+
+    @Test
+    public void editDistance() throws Exception {
+        assertEquals(0, RecordedActivityDescription.editDistance("abc", "abc"));
+        assertEquals(3, RecordedActivityDescription.editDistance("kitten", "sitting"));
+        assertEquals(3, RecordedActivityDescription.editDistance("", "abc"));
+    }
+
+    @Test
+    public void editDistanceStopsOnceOverTheLimit() throws Exception {
+        assertEquals(3, RecordedActivityDescription.editDistance("kitten", "sitting", 3));
+        assertEquals(3, RecordedActivityDescription.editDistance("kitten", "sitting", 2));
+        assertEquals(2, RecordedActivityDescription.editDistance("a", "abcdef", 1));
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.hamcrest.StringDescription;
+import org.junit.Test;
+import org.scassandra.analysis.ActivityAnalyser;
+import org.scassandra.analysis.ActivityAnalysis;
+import org.scassandra.http.client.Query;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ThroughputMatcherTest {
+
+    @Test
+    public void matchesThroughputUnderTheLimit() throws Exception {
+        ActivityAnalysis analysis = analyse(query(0), query(1));
+
+        assertTrue(new ThroughputMatcher(2).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchThroughputOverTheLimit() throws Exception {
+        ActivityAnalysis analysis = analyse(query(0), query(1), query(2));
+
+        assertFalse(new ThroughputMatcher(2).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchUntimedActivity() throws Exception {
+        ActivityAnalysis analysis = analyse(query(0), Query.builder().withQuery("select").build());
+
+        assertFalse(new ThroughputMatcher(2).matchesSafely(analysis));
+    }
+
+    @Test
+    public void doesNotMatchNoActivity() throws Exception {
+        assertFalse(new ThroughputMatcher(2).matchesSafely(analyse()));
+    }
+
+    @Test
+    public void explainsThatUntimedActivityHasNoThroughput() throws Exception {
+        ActivityAnalysis analysis = analyse(Query.builder().withQuery("select").build());
+        StringDescription description = new StringDescription();
+
+        new ThroughputMatcher(2).describeMismatchSafely(analysis, description);
+
+        assertEquals("1 of 1 activities were recorded without nano times so throughput is unknown", description.toString());
+    }
+
+    private static ActivityAnalysis analyse(Query... queries) {
+        ActivityAnalyser analyser = new ActivityAnalyser(1, SECONDS);
+        for (Query query : queries) {
+            analyser.record(query);
+        }
+        return analyser.analysis();
+    }
+
+    private static Query query(long receivedNanos) {
+        return Query.builder()
+                .withQuery("select")
+                .withConnectionId("a")
+                .withReceivedNanos(receivedNanos)
+                .withRespondedNanos(receivedNanos + 1)
+                .build();
+    }
+}
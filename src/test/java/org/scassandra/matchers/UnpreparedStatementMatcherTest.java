@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014 Christopher Batey
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.scassandra.matchers;
+
+import org.junit.Test;
+import org.scassandra.http.client.Query;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class UnpreparedStatementMatcherTest {
+
+    private final UnpreparedStatementMatcher underTest = new UnpreparedStatementMatcher(1);
+
+    @Test
+    public void doesNotMatchHotUnpreparedStatements() throws Exception {
+        boolean matched = underTest.matchesSafely(Arrays.asList(query("select * from people where id = 1"),
+                query("select * from people where id = 2")));
+
+        assertFalse(matched);
+    }
+
+    @Test
+    public void matchesStatementsUnderTheThreshold() throws Exception {
+        boolean matched = underTest.matchesSafely(Arrays.asList(query("select * from people where id = 1"),
+                query("select * from orders where id = 2")));
+
+        assertTrue(matched);
+    }
+
+    private static Query query(String statement) {
+        return Query.builder().withQuery(statement).build();
+    }
+}